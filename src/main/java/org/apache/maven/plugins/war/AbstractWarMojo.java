@@ -27,10 +27,17 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.maven.archiver.MavenArchiveConfiguration;
 import org.apache.maven.artifact.handler.manager.ArtifactHandlerManager;
@@ -47,7 +54,16 @@ import org.apache.maven.plugins.war.packaging.OverlayPackagingTask;
 import org.apache.maven.plugins.war.packaging.WarPackagingContext;
 import org.apache.maven.plugins.war.packaging.WarPackagingTask;
 import org.apache.maven.plugins.war.packaging.WarProjectPackagingTask;
+import org.apache.maven.plugins.war.util.DigestIndex;
+import org.apache.maven.plugins.war.util.EncodingCache;
+import org.apache.maven.plugins.war.util.FileCopier;
+import org.apache.maven.plugins.war.util.FileLinker;
+import org.apache.maven.plugins.war.util.FilteredFileCache;
+import org.apache.maven.plugins.war.util.PackagingJournal;
+import org.apache.maven.plugins.war.util.PackagingMatcher;
+import org.apache.maven.plugins.war.util.TokenScanner;
 import org.apache.maven.plugins.war.util.WebappStructure;
+import org.apache.maven.plugins.war.util.WebappStructureSerializer;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.filtering.FilterWrapper;
 import org.apache.maven.shared.filtering.MavenFileFilter;
@@ -64,6 +80,21 @@ import org.codehaus.plexus.archiver.manager.NoSuchArchiverException;
  */
 public abstract class AbstractWarMojo extends AbstractMojo {
 
+    /**
+     * The name of the digest index file within the work directory.
+     */
+    private static final String DIGEST_INDEX_FILE_NAME = "webapp-digests.idx";
+
+    private static final String FILTERED_FILE_CACHE_DIRECTORY_NAME = "filtered-resources";
+
+    private static final String FILTERED_FILE_INDEX_FILE_NAME = "filtered-resources.idx";
+
+    private static final String ENCODING_INDEX_FILE_NAME = "xml-encodings.idx";
+
+    private static final String WEBAPP_STRUCTURE_FILE_NAME = "webapp-structure.bin";
+
+    private static final String PACKAGING_JOURNAL_FILE_PREFIX = "packaging-journal-";
+
     /**
      * Whether to fail the build if the <code>web.xml</code> file is missing. Set to <code>false</code> if you
      * want your WAR built without a <code>web.xml</code> file. This may be useful if you are building an overlay that
@@ -353,6 +384,130 @@ public abstract class AbstractWarMojo extends AbstractMojo {
     @Parameter(defaultValue = "WEB-INF/lib/")
     private String outdatedCheckPath;
 
+    /**
+     * The number of threads to use when copying files into the webapp directory. Ownership of each file is still
+     * decided in order on the main thread, only the actual copy of the bytes is delegated to a pool of workers. The
+     * default value of <code>1</code> copies every file on the main thread.
+     *
+     * @since 3.5.2
+     */
+    @Parameter(property = "maven.war.copyThreads", defaultValue = "1")
+    private int copyThreads = 1;
+
+    /**
+     * Whether the dependencies packaged in <code>WEB-INF/lib</code> (and the other artifact directories) should be
+     * hard-linked to their file in the local repository instead of being copied. Files are copied as usual if the
+     * file system of the webapp directory does not support hard links. The exploded webapp and the generated WAR are
+     * identical either way.
+     * <p>
+     * <b>Warning:</b> a linked file of the exploded webapp and the file of the local repository are the same file. Any
+     * tool that modifies a file of <code>WEB-INF/lib</code> in place, such as an IDE deploying the exploded webapp or a
+     * bytecode enhancer, then corrupts the artifact in the local repository, for this build and for every other build
+     * using it. Only enable this if nothing but this plugin writes to the exploded webapp.
+     *
+     * @since 3.5.2
+     */
+    @Parameter(property = "maven.war.linkArtifacts", defaultValue = "false")
+    private boolean linkArtifacts;
+
+    /**
+     * Whether a file should only be written to the webapp directory if its content changed. The size, timestamp and
+     * content digest of the copied files are kept in an index within the {@link #workDirectory}, so that files that
+     * did not change are neither read nor rewritten on the next build. Files holding the same content are left
+     * untouched even if their source has a newer timestamp, which avoids needless reloads of containers deploying
+     * the webapp directory.
+     *
+     * @since 3.5.2
+     */
+    @Parameter(property = "maven.war.useDigestIndex", defaultValue = "false")
+    private boolean useDigestIndex;
+
+    /**
+     * Whether the output of filtered files should be cached within the {@link #workDirectory}. The expressions
+     * referenced by each filtered file are recorded, and a file is only interpolated again if its content, its
+     * encoding, the filter settings or the value of one of its expressions changed since it was cached; otherwise the
+     * cached output is copied to the webapp. Files that do not reference any expression are copied as is. The
+     * encoding detected for filtered XML files is kept as well, so that unchanged files are not read to detect it.
+     *
+     * @since 3.5.2
+     */
+    @Parameter(property = "maven.war.useFilteringCache", defaultValue = "false")
+    private boolean useFilteringCache;
+
+    /**
+     * Whether the filtered web resources and the files of filtered overlays that do not contain any expression
+     * delimiter nor the escape string should be copied instead of going through the filters. Such files then keep the
+     * timestamp of their source and get the permissions of copied files, and are not written again while they are up
+     * to date. The default value of <code>false</code> filters every file.
+     *
+     * @since 3.5.2
+     */
+    @Parameter(property = "maven.war.copyTokenFreeFiles", defaultValue = "false")
+    private boolean copyTokenFreeFiles;
+
+    /**
+     * The number of threads to use to filter the filtered web resources and the files of filtered overlays. Each
+     * thread uses its own filter wrappers, built from the same settings. Files are registered in order on the main
+     * thread, only the actual filtering is delegated to the workers. The default value of <code>1</code> filters every
+     * file on the main thread.
+     *
+     * @since 3.5.2
+     */
+    @Parameter(property = "maven.war.filteringThreads", defaultValue = "1")
+    private int filteringThreads = 1;
+
+    /**
+     * The number of entries to scan sequentially in the webapp source directory, the classes directory or an overlay
+     * before scanning the remaining subdirectories in parallel with fork/join tasks. This speeds up the scan of very
+     * large trees, especially with a cold file system cache, and does not change the order of the scanned files. The
+     * default value of <code>0</code> always scans on the main thread.
+     *
+     * @since 3.5.2
+     */
+    @Parameter(property = "maven.war.scanForkThreshold", defaultValue = "0")
+    private int scanForkThreshold;
+
+    /**
+     * Whether the structure of the webapp, that is the owner of each file, should be kept within the
+     * {@link #workDirectory} for the next build. Files whose owner changed since the previous build are then
+     * overwritten even if they look up to date, and the files of removed dependencies and overlays that are within the
+     * {@link #outdatedCheckPath} are deleted from the webapp directory.
+     *
+     * @since 3.5.2
+     */
+    @Parameter(property = "maven.war.useWebappStructureCache", defaultValue = "false")
+    private boolean useWebappStructureCache;
+
+    /**
+     * Whether the entries of unfiltered archive overlays should be written straight from the archive to the webapp
+     * directory, instead of unpacking each overlay in full within the {@link #workDirectory} and copying its files
+     * afterwards. The entries that are excluded or that belong to another owner are then never extracted.
+     *
+     * @since 3.5.2
+     */
+    @Parameter(property = "maven.war.streamOverlays", defaultValue = "false")
+    private boolean streamOverlays;
+
+    /**
+     * The number of threads to use to unpack overlays. All overlays are then unpacked in parallel as soon as the
+     * packaging starts, while the merge of their files into the webapp directory still happens in the order of the
+     * overlays. The default value of <code>1</code> unpacks each overlay on the main thread when it is merged.
+     *
+     * @since 3.5.2
+     */
+    @Parameter(property = "maven.war.unpackThreads", defaultValue = "1")
+    private int unpackThreads = 1;
+
+    /**
+     * The filter wrappers of the current filtering worker thread, if any.
+     */
+    private final ThreadLocal<List<FilterWrapper>> workerFilterWrappers = new ThreadLocal<>();
+
+    /**
+     * The compiled packaging includes and excludes, created on first use.
+     */
+    private PackagingMatcher packagingMatcher;
+
     private final Overlay currentProjectOverlay = Overlay.createInstance();
 
     /**
@@ -481,7 +636,8 @@ public abstract class AbstractWarMojo extends AbstractMojo {
     public void buildWebapp(MavenProject mavenProject, File webapplicationDirectory)
             throws MojoExecutionException, MojoFailureException, IOException {
 
-        WebappStructure structure = new WebappStructure(mavenProject.getDependencies());
+        final WebappStructure cache = useWebappStructureCache ? loadWebappStructure() : null;
+        WebappStructure structure = new WebappStructure(mavenProject.getDependencies(), cache);
 
         // CHECKSTYLE_OFF: LineLength
         final long startTime = System.currentTimeMillis();
@@ -490,9 +646,9 @@ public abstract class AbstractWarMojo extends AbstractMojo {
         final OverlayManager overlayManager = new OverlayManager(
                 overlays, mavenProject, getDependentWarIncludes(), getDependentWarExcludes(), currentProjectOverlay);
         // CHECKSTYLE_ON: LineLength
+        final MavenResourcesExecution mavenResourcesExecution = new MavenResourcesExecution();
         List<FilterWrapper> defaultFilterWrappers;
         try {
-            MavenResourcesExecution mavenResourcesExecution = new MavenResourcesExecution();
             mavenResourcesExecution.setEscapeString(escapeString);
             mavenResourcesExecution.setSupportMultiLineFiltering(supportMultiLineFiltering);
             mavenResourcesExecution.setMavenProject(mavenProject);
@@ -514,13 +670,19 @@ public abstract class AbstractWarMojo extends AbstractMojo {
             mavenResourcesExecution.setSupportMultiLineFiltering(supportMultiLineFiltering);
 
             defaultFilterWrappers = mavenFileFilter.getDefaultFilterWrappers(mavenResourcesExecution);
-
         } catch (MavenFilteringException e) {
             getLog().error("fail to build filtering wrappers " + e.getMessage());
             throw new MojoExecutionException(e.getMessage(), e);
         }
-
-        final WarPackagingContext context = new DefaultWarPackagingContext(
+        final FilteredFileCache filteredFileCache =
+                useFilteringCache ? createFilteredFileCache(mavenResourcesExecution) : null;
+        final TokenScanner tokenScanner = copyTokenFreeFiles
+                ? new TokenScanner(mavenResourcesExecution.getDelimiters(), escapeString)
+                : null;
+        final ExecutorService filteringExecutor =
+                filteringThreads > 1 ? createFilteringExecutor(mavenResourcesExecution) : null;
+
+        final DefaultWarPackagingContext context = new DefaultWarPackagingContext(
                 webapplicationDirectory,
                 structure,
                 overlayManager,
@@ -531,17 +693,109 @@ public abstract class AbstractWarMojo extends AbstractMojo {
                 resourceEncoding,
                 propertiesEncoding,
                 failOnMissingWebXml,
-                outputTimestamp);
+                outputTimestamp,
+                filteredFileCache,
+                tokenScanner,
+                filteringExecutor);
 
         final List<WarPackagingTask> packagingTasks = getPackagingTasks(overlayManager);
 
-        for (WarPackagingTask warPackagingTask : packagingTasks) {
-            warPackagingTask.performPackaging(context);
+        try {
+            if (context.getUnpackExecutor() != null) {
+                for (WarPackagingTask warPackagingTask : packagingTasks) {
+                    if (warPackagingTask instanceof OverlayPackagingTask) {
+                        ((OverlayPackagingTask) warPackagingTask).startUnpack(context);
+                    }
+                }
+            }
+            for (WarPackagingTask warPackagingTask : packagingTasks) {
+                warPackagingTask.performPackaging(context);
+            }
+            context.deleteRequestedOutdatedResources();
+            if (cache != null) {
+                context.deleteObsoleteFiles();
+            }
+            context.persist();
+        } finally {
+            context.shutdown();
         }
 
+        final FileCopier fileCopier = context.getFileCopier();
+        getLog().debug("Copied " + fileCopier.getTransferredFiles() + " files ("
+                + fileCopier.getTransferredBytes() + " bytes) with FileChannel.transferTo and "
+                + fileCopier.getBufferedFiles() + " files (" + fileCopier.getBufferedBytes()
+                + " bytes) through pooled buffers");
+        if (tokenScanner != null) {
+            getLog().debug("Copied " + tokenScanner.getTokenFreeFiles() + " of " + tokenScanner.getScannedFiles()
+                    + " scanned files to filter without filtering them, as they contain no expression");
+        }
         getLog().debug("Webapp assembled in [" + (System.currentTimeMillis() - startTime) + " msecs]");
     }
 
+    /**
+     * Loads the structure of the webapp persisted by the previous build.
+     *
+     * @return the structure of the previous build, or {@code null} if there is none
+     */
+    private WebappStructure loadWebappStructure() {
+        try {
+            return new WebappStructureSerializer().fromFile(new File(workDirectory, WEBAPP_STRUCTURE_FILE_NAME));
+        } catch (IOException e) {
+            getLog().warn("Could not read the webapp structure of the previous build, ignoring it", e);
+            return null;
+        }
+    }
+
+    /**
+     * Creates the cache of the filtered files for the filter settings of the current build.
+     *
+     * @param mavenResourcesExecution the filter settings
+     * @return the filtered file cache
+     */
+    private FilteredFileCache createFilteredFileCache(MavenResourcesExecution mavenResourcesExecution) {
+        final String filterDigest = new FilteredFileCache.Key()
+                .add("escapeString", escapeString)
+                .add("escapedBackslashesInFilePath", escapedBackslashesInFilePath)
+                .add("supportMultiLineFiltering", supportMultiLineFiltering)
+                .add("delimiters", mavenResourcesExecution.getDelimiters())
+                .toDigest();
+        final FilteredFileCache cache = new FilteredFileCache(
+                new File(workDirectory, FILTERED_FILE_CACHE_DIRECTORY_NAME),
+                new File(workDirectory, FILTERED_FILE_INDEX_FILE_NAME),
+                filterDigest,
+                mavenResourcesExecution.getDelimiters(),
+                supportMultiLineFiltering);
+        try {
+            cache.load();
+        } catch (IOException e) {
+            getLog().warn("Could not read the filtered file index, all filtered files will be read again", e);
+        }
+        return cache;
+    }
+
+    /**
+     * Creates the executor filtering files in parallel. The filter wrappers of its threads are built upfront, so
+     * that a failure fails the build instead of having the threads share the wrappers of the main thread.
+     *
+     * @param mavenResourcesExecution the filter settings
+     * @return the filtering executor
+     * @throws MojoExecutionException if the filter wrappers of a thread could not be built
+     */
+    private ExecutorService createFilteringExecutor(MavenResourcesExecution mavenResourcesExecution)
+            throws MojoExecutionException {
+        final Queue<List<FilterWrapper>> filterWrappers = new ConcurrentLinkedQueue<>();
+        try {
+            for (int i = 0; i < filteringThreads; i++) {
+                filterWrappers.add(mavenFileFilter.getDefaultFilterWrappers(mavenResourcesExecution));
+            }
+        } catch (MavenFilteringException e) {
+            getLog().error("fail to build filtering wrappers " + e.getMessage());
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+        return Executors.newFixedThreadPool(
+                filteringThreads, new FilteringThreadFactory(mavenResourcesExecution, filterWrappers));
+    }
+
     /**
      * Returns a {@code List} of the {@link org.apache.maven.plugins.war.packaging.WarPackagingTask}
      * instances to invoke to perform the packaging.
@@ -591,10 +845,34 @@ public abstract class AbstractWarMojo extends AbstractMojo {
 
         private final Boolean failOnMissingWebXml;
 
-        private final Collection<String> outdatedResources;
+        private final PackagingJournal packagingJournal;
+
+        private boolean deleteOutdatedResources;
 
         private final String outputTimestamp;
 
+        private final ExecutorService copyExecutor;
+
+        private final ExecutorService unpackExecutor;
+
+        private final ConcurrentMap<File, Object> unpackLocks = new ConcurrentHashMap<>();
+
+        private final FileLinker artifactLinker;
+
+        private final DigestIndex digestIndex;
+
+        private final FileCopier fileCopier = new FileCopier();
+
+        private final FilteredFileCache filteredFileCache;
+
+        private final EncodingCache encodingCache;
+
+        private final TokenScanner tokenScanner;
+
+        private final ExecutorService filteringExecutor;
+
+        private final PackagingMatcher packagingMatcher = AbstractWarMojo.this.getPackagingMatcher();
+
         /**
          * @param webappDirectory the web application directory
          * @param webappStructure the web app structure
@@ -607,6 +885,9 @@ public abstract class AbstractWarMojo extends AbstractMojo {
          * @param propertiesEncoding the encoding to use for properties files
          * @param failOnMissingWebXml flag to check whether we should ignore missing web.xml or not
          * @param outputTimestamp the output timestamp for reproducible archive creation
+         * @param filteredFileCache the cache of the filtered files, or {@code null}
+         * @param tokenScanner the scanner of the files to filter, or {@code null}
+         * @param filteringExecutor the executor filtering files in parallel, or {@code null}
          */
         @SuppressWarnings("checkstyle:ParameterNumber")
         DefaultWarPackagingContext(
@@ -620,7 +901,10 @@ public abstract class AbstractWarMojo extends AbstractMojo {
                 String resourceEncoding,
                 String propertiesEncoding,
                 final Boolean failOnMissingWebXml,
-                String outputTimestamp) {
+                String outputTimestamp,
+                FilteredFileCache filteredFileCache,
+                TokenScanner tokenScanner,
+                ExecutorService filteringExecutor) {
             this.webappDirectory = webappDirectory;
             this.webappStructure = webappStructure;
             this.overlayManager = overlayManager;
@@ -638,44 +922,147 @@ public abstract class AbstractWarMojo extends AbstractMojo {
             }
             this.failOnMissingWebXml = failOnMissingWebXml;
 
+            this.packagingJournal = loadPackagingJournal();
+            this.outputTimestamp = outputTimestamp;
+            this.copyExecutor = copyThreads > 1
+                    ? Executors.newFixedThreadPool(copyThreads, new DaemonThreadFactory("war-copy-"))
+                    : null;
+            this.unpackExecutor = unpackThreads > 1
+                    ? Executors.newFixedThreadPool(unpackThreads, new DaemonThreadFactory("war-unpack-"))
+                    : null;
+            this.artifactLinker = linkArtifacts ? new FileLinker() : null;
+            this.digestIndex = useDigestIndex ? loadDigestIndex() : null;
+            this.filteredFileCache = filteredFileCache;
+            this.tokenScanner = tokenScanner;
+            this.filteringExecutor = filteringExecutor;
+            this.encodingCache = loadEncodingCache();
+        }
+
+        private DigestIndex loadDigestIndex() {
+            final DigestIndex index = new DigestIndex(new File(workDirectory, DIGEST_INDEX_FILE_NAME));
+            try {
+                index.load();
+            } catch (IOException e) {
+                getLog().warn("Could not read the digest index, all files will be checked again", e);
+            }
+            return index;
+        }
+
+        /**
+         * Loads the journal of the previous build in the webapp directory. Each webapp directory has a journal of its
+         * own, so that the exploded and inplace goals do not override each other's journal. Without a journal, the
+         * files of the webapp directory older than the build are taken as the paths of the previous build.
+         */
+        private PackagingJournal loadPackagingJournal() {
+            final String journalFileName = PACKAGING_JOURNAL_FILE_PREFIX
+                    + Integer.toHexString(webappDirectory.getAbsolutePath().hashCode()) + ".idx";
+            final PackagingJournal journal =
+                    new PackagingJournal(new File(workDirectory, journalFileName), webappDirectory);
+            try {
+                if (journal.load()) {
+                    return journal;
+                }
+            } catch (IOException e) {
+                getLog().warn("Could not read the packaging journal, looking for outdated resources by timestamp", e);
+            }
+            addFilesOlderThanSession(journal);
+            return journal;
+        }
+
+        private void addFilesOlderThanSession(final PackagingJournal journal) {
             if (!webappDirectory.exists()) {
-                outdatedResources = Collections.emptyList();
-            } else if (getWarSourceDirectory().toPath().equals(webappDirectory.toPath())) {
+                return;
+            }
+            if (getWarSourceDirectory().toPath().equals(webappDirectory.toPath())) {
                 getLog().info("Can't detect outdated resources when running inplace goal");
-                outdatedResources = Collections.emptyList();
-            } else if (session.getStartTime() == null) {
+                return;
+            }
+            if (session.getStartTime() == null) {
                 // MWAR-439: this should never happen, but has happened in some integration context...
                 getLog().warn("Can't detect outdated resources because unexpected session.getStartTime() == null");
-                outdatedResources = Collections.emptyList();
-            } else {
-                outdatedResources = new ArrayList<>();
-                try {
-                    if ('\\' == File.separatorChar) {
-                        if (!checkAllPathsForOutdated()) {
-                            outdatedCheckPath = outdatedCheckPath.replace('/', '\\');
+                return;
+            }
+            final long startTime = session.getStartTime().getTime();
+            final Path root = webappDirectory.toPath();
+            try {
+                Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.lastModifiedTime().toMillis() < startTime) {
+                            journal.addPreviousPath(root.relativize(file).toString());
                         }
+                        return FileVisitResult.CONTINUE;
                     }
-                    Files.walkFileTree(webappDirectory.toPath(), new SimpleFileVisitor<Path>() {
-                        @Override
-                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                            if (file.toFile().lastModified()
-                                    < session.getStartTime().getTime()) {
-                                String path = webappDirectory
-                                        .toPath()
-                                        .relativize(file)
-                                        .toString();
-                                if (checkAllPathsForOutdated() || path.startsWith(outdatedCheckPath)) {
-                                    outdatedResources.add(path);
-                                }
-                            }
-                            return super.visitFile(file, attrs);
-                        }
-                    });
+                });
+            } catch (IOException e) {
+                getLog().warn("Can't detect outdated resources", e);
+            }
+        }
+
+        private EncodingCache loadEncodingCache() {
+            // the encodings are kept along with the other filtering state, if any
+            final EncodingCache cache =
+                    new EncodingCache(useFilteringCache ? new File(workDirectory, ENCODING_INDEX_FILE_NAME) : null);
+            try {
+                cache.load();
+            } catch (IOException e) {
+                getLog().warn("Could not read the encoding cache, all XML files will be read again", e);
+            }
+            return cache;
+        }
+
+        /**
+         * Persists the state kept between builds, once the packaging completed successfully.
+         */
+        void persist() {
+            if (digestIndex != null) {
+                try {
+                    digestIndex.save();
                 } catch (IOException e) {
-                    getLog().warn("Can't detect outdated resources", e);
+                    getLog().warn("Could not write the digest index", e);
                 }
             }
-            this.outputTimestamp = outputTimestamp;
+            if (filteredFileCache != null) {
+                try {
+                    filteredFileCache.save();
+                    filteredFileCache.prune();
+                } catch (IOException e) {
+                    getLog().warn("Could not write the filtered file cache", e);
+                }
+            }
+            try {
+                encodingCache.save();
+            } catch (IOException e) {
+                getLog().warn("Could not write the encoding cache", e);
+            }
+            try {
+                packagingJournal.save();
+            } catch (IOException e) {
+                getLog().warn("Could not write the packaging journal", e);
+            }
+            if (useWebappStructureCache) {
+                try {
+                    new WebappStructureSerializer()
+                            .toFile(webappStructure, new File(workDirectory, WEBAPP_STRUCTURE_FILE_NAME));
+                } catch (IOException e) {
+                    getLog().warn("Could not write the webapp structure", e);
+                }
+            }
+        }
+
+        /**
+         * Releases the resources held by this context once the packaging is over.
+         */
+        void shutdown() {
+            if (copyExecutor != null) {
+                copyExecutor.shutdownNow();
+            }
+            if (unpackExecutor != null) {
+                unpackExecutor.shutdownNow();
+            }
+            if (filteringExecutor != null) {
+                filteringExecutor.shutdownNow();
+            }
         }
 
         protected boolean checkAllPathsForOutdated() {
@@ -774,7 +1161,8 @@ public abstract class AbstractWarMojo extends AbstractMojo {
 
         @Override
         public List<FilterWrapper> getFilterWrappers() {
-            return filterWrappers;
+            final List<FilterWrapper> wrappers = workerFilterWrappers.get();
+            return wrappers != null ? wrappers : filterWrappers;
         }
 
         @Override
@@ -814,29 +1202,126 @@ public abstract class AbstractWarMojo extends AbstractMojo {
 
         @Override
         public void addResource(String resource) {
-            outdatedResources.remove(resource.replace('/', File.separatorChar));
+            packagingJournal.add(resource);
         }
 
         @Override
         public void deleteOutdatedResources() {
-            for (String resource : outdatedResources) {
-                getLog().info("deleting outdated resource " + resource);
-                new File(getWebappDirectory(), resource).delete();
+            deleteOutdatedResources = true;
+        }
+
+        /**
+         * Deletes the outdated resources if requested, once all the packaging tasks completed.
+         */
+        void deleteRequestedOutdatedResources() {
+            if (!deleteOutdatedResources) {
+                return;
+            }
+            for (String resource : packagingJournal.getOutdatedPaths()) {
+                if (isCheckedForOutdated(resource)) {
+                    getLog().info("deleting outdated resource " + resource);
+                    new File(getWebappDirectory(), resource).delete();
+                }
             }
         }
 
+        /**
+         * Deletes the files of the previous build that no longer belong to the webapp, according to the structure of
+         * the previous build. Like outdated resources, only the files within the {@link #outdatedCheckPath} are
+         * deleted.
+         */
+        void deleteObsoleteFiles() {
+            if (getWarSourceDirectory().toPath().equals(webappDirectory.toPath())) {
+                // the files of the webapp are the sources when running inplace
+                return;
+            }
+            for (String path : webappStructure.getObsoletePaths()) {
+                final File file = new File(webappDirectory, path);
+                if (isCheckedForOutdated(path) && file.isFile()) {
+                    getLog().info("Deleting obsolete file " + path);
+                    if (!file.delete()) {
+                        getLog().warn("Could not delete obsolete file " + file);
+                    }
+                }
+            }
+        }
+
+        private boolean isCheckedForOutdated(String resource) {
+            return checkAllPathsForOutdated() || resource.startsWith(outdatedCheckPath.replace('\\', '/'));
+        }
+
         @Override
         public String getOutputTimestamp() {
             return outputTimestamp;
         }
 
+        @Override
+        public ExecutorService getCopyExecutor() {
+            return copyExecutor;
+        }
+
+        @Override
+        public FileLinker getArtifactLinker() {
+            return artifactLinker;
+        }
+
+        @Override
+        public DigestIndex getDigestIndex() {
+            return digestIndex;
+        }
+
+        @Override
+        public FileCopier getFileCopier() {
+            return fileCopier;
+        }
+
+        @Override
+        public FilteredFileCache getFilteredFileCache() {
+            return filteredFileCache;
+        }
+
+        @Override
+        public EncodingCache getEncodingCache() {
+            return encodingCache;
+        }
+
+        @Override
+        public TokenScanner getTokenScanner() {
+            return tokenScanner;
+        }
+
+        @Override
+        public ExecutorService getFilteringExecutor() {
+            return filteringExecutor;
+        }
+
+        @Override
+        public int getScanForkThreshold() {
+            return scanForkThreshold;
+        }
+
+        @Override
+        public boolean isStreamOverlays() {
+            return streamOverlays;
+        }
+
+        @Override
+        public ExecutorService getUnpackExecutor() {
+            return unpackExecutor;
+        }
+
+        @Override
+        public Object getUnpackLock(File unpackDirectory) {
+            return unpackLocks.computeIfAbsent(unpackDirectory.getAbsoluteFile(), directory -> new Object());
+        }
+
         /**
          * @return list of packaging excludes
          * @since 3.4.1
          */
         @Override
         public List<String> getPackagingExcludes() {
-            return Arrays.asList(AbstractWarMojo.this.getPackagingExcludes());
+            return packagingMatcher.getExcludes();
         }
 
         /**
@@ -845,7 +1330,81 @@ public abstract class AbstractWarMojo extends AbstractMojo {
          */
         @Override
         public List<String> getPackagingIncludes() {
-            return Arrays.asList(AbstractWarMojo.this.getPackagingIncludes());
+            return packagingMatcher.getIncludes();
+        }
+
+        @Override
+        public PackagingMatcher getPackagingMatcher() {
+            return packagingMatcher;
+        }
+    }
+
+    /**
+     * Creates the daemon threads used to copy files or unpack overlays in parallel.
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        private final String namePrefix;
+
+        DaemonThreadFactory(String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, namePrefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Creates the daemon threads filtering files, each with its own filter wrappers. A thread takes the wrappers
+     * built upfront and gives them back when it ends, so that a thread replacing it reuses them.
+     */
+    private class FilteringThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        private final MavenResourcesExecution mavenResourcesExecution;
+
+        private final Queue<List<FilterWrapper>> filterWrappers;
+
+        FilteringThreadFactory(
+                MavenResourcesExecution mavenResourcesExecution, Queue<List<FilterWrapper>> filterWrappers) {
+            this.mavenResourcesExecution = mavenResourcesExecution;
+            this.filterWrappers = filterWrappers;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final List<FilterWrapper> wrappers = takeFilterWrappers();
+            Thread thread = new Thread(
+                    () -> {
+                        workerFilterWrappers.set(wrappers);
+                        try {
+                            runnable.run();
+                        } finally {
+                            workerFilterWrappers.remove();
+                            filterWrappers.add(wrappers);
+                        }
+                    },
+                    "war-filter-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+        private List<FilterWrapper> takeFilterWrappers() {
+            final List<FilterWrapper> wrappers = filterWrappers.poll();
+            if (wrappers != null) {
+                return wrappers;
+            }
+            // a thread replacing one that has not given its wrappers back yet
+            try {
+                return mavenFileFilter.getDefaultFilterWrappers(mavenResourcesExecution);
+            } catch (MavenFilteringException e) {
+                throw new IllegalStateException("Could not build the filter wrappers of a filtering thread", e);
+            }
         }
     }
 
@@ -1075,6 +1634,7 @@ public abstract class AbstractWarMojo extends AbstractMojo {
      */
     public void setPackagingExcludes(String packagingExcludes) {
         this.packagingExcludes = packagingExcludes;
+        this.packagingMatcher = null;
     }
 
     /**
@@ -1093,5 +1653,159 @@ public abstract class AbstractWarMojo extends AbstractMojo {
      */
     public void setPackagingIncludes(String packagingIncludes) {
         this.packagingIncludes = packagingIncludes;
+        this.packagingMatcher = null;
+    }
+
+    /**
+     * Returns the packaging includes and excludes, compiled once.
+     *
+     * @return the packaging matcher
+     * @since 3.5.2
+     */
+    protected PackagingMatcher getPackagingMatcher() {
+        if (packagingMatcher == null) {
+            packagingMatcher = new PackagingMatcher(getPackagingIncludes(), getPackagingExcludes());
+        }
+        return packagingMatcher;
+    }
+
+    /**
+     * @return {@link #copyThreads}
+     */
+    public int getCopyThreads() {
+        return copyThreads;
+    }
+
+    /**
+     * @param copyThreads {@link #copyThreads}
+     */
+    public void setCopyThreads(int copyThreads) {
+        this.copyThreads = copyThreads;
+    }
+
+    /**
+     * @return {@link #copyTokenFreeFiles}
+     */
+    public boolean isCopyTokenFreeFiles() {
+        return copyTokenFreeFiles;
+    }
+
+    /**
+     * @param copyTokenFreeFiles {@link #copyTokenFreeFiles}
+     */
+    public void setCopyTokenFreeFiles(boolean copyTokenFreeFiles) {
+        this.copyTokenFreeFiles = copyTokenFreeFiles;
+    }
+
+    /**
+     * @return {@link #filteringThreads}
+     */
+    public int getFilteringThreads() {
+        return filteringThreads;
+    }
+
+    /**
+     * @param filteringThreads {@link #filteringThreads}
+     */
+    public void setFilteringThreads(int filteringThreads) {
+        this.filteringThreads = filteringThreads;
+    }
+
+    /**
+     * @return {@link #scanForkThreshold}
+     */
+    public int getScanForkThreshold() {
+        return scanForkThreshold;
+    }
+
+    /**
+     * @param scanForkThreshold {@link #scanForkThreshold}
+     */
+    public void setScanForkThreshold(int scanForkThreshold) {
+        this.scanForkThreshold = scanForkThreshold;
+    }
+
+    /**
+     * @return {@link #linkArtifacts}
+     */
+    public boolean isLinkArtifacts() {
+        return linkArtifacts;
+    }
+
+    /**
+     * @param linkArtifacts {@link #linkArtifacts}
+     */
+    public void setLinkArtifacts(boolean linkArtifacts) {
+        this.linkArtifacts = linkArtifacts;
+    }
+
+    /**
+     * @return {@link #useDigestIndex}
+     */
+    public boolean isUseDigestIndex() {
+        return useDigestIndex;
+    }
+
+    /**
+     * @param useDigestIndex {@link #useDigestIndex}
+     */
+    public void setUseDigestIndex(boolean useDigestIndex) {
+        this.useDigestIndex = useDigestIndex;
+    }
+
+    /**
+     * @return {@link #useFilteringCache}
+     */
+    public boolean isUseFilteringCache() {
+        return useFilteringCache;
+    }
+
+    /**
+     * @param useFilteringCache {@link #useFilteringCache}
+     */
+    public void setUseFilteringCache(boolean useFilteringCache) {
+        this.useFilteringCache = useFilteringCache;
+    }
+
+    /**
+     * @return {@link #useWebappStructureCache}
+     */
+    public boolean isUseWebappStructureCache() {
+        return useWebappStructureCache;
+    }
+
+    /**
+     * @param useWebappStructureCache {@link #useWebappStructureCache}
+     */
+    public void setUseWebappStructureCache(boolean useWebappStructureCache) {
+        this.useWebappStructureCache = useWebappStructureCache;
+    }
+
+    /**
+     * @return {@link #streamOverlays}
+     */
+    public boolean isStreamOverlays() {
+        return streamOverlays;
+    }
+
+    /**
+     * @param streamOverlays {@link #streamOverlays}
+     */
+    public void setStreamOverlays(boolean streamOverlays) {
+        this.streamOverlays = streamOverlays;
+    }
+
+    /**
+     * @return {@link #unpackThreads}
+     */
+    public int getUnpackThreads() {
+        return unpackThreads;
+    }
+
+    /**
+     * @param unpackThreads {@link #unpackThreads}
+     */
+    public void setUnpackThreads(int unpackThreads) {
+        this.unpackThreads = unpackThreads;
     }
 }
@@ -25,7 +25,6 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.util.Arrays;
 import java.util.List;
 
 import org.apache.maven.archiver.MavenArchiver;
@@ -40,6 +39,7 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.plugins.war.util.ClassesPackager;
+import org.apache.maven.plugins.war.util.PackagingMatcher;
 import org.apache.maven.project.MavenProjectHelper;
 import org.apache.maven.shared.filtering.MavenFileFilter;
 import org.apache.maven.shared.filtering.MavenResourcesFiltering;
@@ -202,10 +202,14 @@ public class WarMojo extends AbstractWarMojo {
         // configure for Reproducible Builds based on outputTimestamp value
         archiver.configureReproducible(outputTimestamp);
 
-        getLog().debug("Excluding " + Arrays.asList(getPackagingExcludes()) + " from the generated webapp archive.");
-        getLog().debug("Including " + Arrays.asList(getPackagingIncludes()) + " in the generated webapp archive.");
+        final PackagingMatcher packagingMatcher = getPackagingMatcher();
+        getLog().debug("Excluding " + packagingMatcher.getExcludes() + " from the generated webapp archive.");
+        getLog().debug("Including " + packagingMatcher.getIncludes() + " in the generated webapp archive.");
 
-        warArchiver.addDirectory(getWebappDirectory(), getPackagingIncludes(), getPackagingExcludes());
+        warArchiver.addDirectory(
+                getWebappDirectory(),
+                packagingMatcher.getIncludes().toArray(new String[0]),
+                packagingMatcher.getExcludes().toArray(new String[0]));
 
         final File webXmlFile = new File(getWebappDirectory(), "WEB-INF/web.xml");
         if (webXmlFile.exists()) {
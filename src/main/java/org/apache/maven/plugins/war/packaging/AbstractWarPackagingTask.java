@@ -21,14 +21,29 @@ package org.apache.maven.plugins.war.packaging;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.io.input.XmlStreamReader;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.war.util.DigestIndex;
+import org.apache.maven.plugins.war.util.EncodingCache;
+import org.apache.maven.plugins.war.util.FileCopier;
+import org.apache.maven.plugins.war.util.FileLinker;
+import org.apache.maven.plugins.war.util.FileScanner;
+import org.apache.maven.plugins.war.util.FilteredFileCache;
+import org.apache.maven.plugins.war.util.PackagingMatcher;
 import org.apache.maven.plugins.war.util.PathSet;
+import org.apache.maven.plugins.war.util.TokenScanner;
 import org.apache.maven.plugins.war.util.WebappStructure;
+import org.apache.maven.plugins.war.util.WebappStructure.Registration;
 import org.apache.maven.shared.filtering.MavenFilteringException;
 import org.apache.maven.shared.mapping.MappingUtils;
 import org.apache.maven.shared.utils.StringUtils;
@@ -36,8 +51,8 @@ import org.codehaus.plexus.archiver.ArchiverException;
 import org.codehaus.plexus.archiver.UnArchiver;
 import org.codehaus.plexus.archiver.jar.JarArchiver;
 import org.codehaus.plexus.archiver.manager.NoSuchArchiverException;
+import org.codehaus.plexus.components.io.fileselectors.FileSelector;
 import org.codehaus.plexus.interpolation.InterpolationException;
-import org.codehaus.plexus.util.DirectoryScanner;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.SelectorUtils;
 
@@ -97,21 +112,82 @@ public abstract class AbstractWarPackagingTask implements WarPackagingTask {
             String targetPrefix,
             boolean filtered)
             throws IOException, MojoExecutionException {
-        for (String fileToCopyName : sourceFilesSet.paths()) {
-            final File sourceFile = new File(sourceBaseDir, fileToCopyName);
+        final CopyBatch batch = createCopyBatch(context);
+        final CopyBatch filterBatch = createFilteringBatch(context);
+        try {
+            // consecutive files copied as is are registered at once, then copied
+            PathSet targetFiles = new PathSet();
+            List<File> sourceFiles = new ArrayList<>();
+            for (String fileToCopyName : sourceFilesSet.paths()) {
+                final File sourceFile = new File(sourceBaseDir, fileToCopyName);
+
+                String destinationFileName;
+                if (targetPrefix == null) {
+                    destinationFileName = fileToCopyName;
+                } else {
+                    destinationFileName = targetPrefix + fileToCopyName;
+                }
 
-            String destinationFileName;
-            if (targetPrefix == null) {
-                destinationFileName = fileToCopyName;
-            } else {
-                destinationFileName = targetPrefix + fileToCopyName;
+                final boolean filteredFile = filtered && !context.isNonFilteredExtension(sourceFile.getName());
+                if (!filteredFile
+                        && sourceFile.isFile()
+                        && !isExcluded(context, destinationFileName)
+                        && !targetFiles.contains(destinationFileName)) {
+                    targetFiles.add(destinationFileName);
+                    sourceFiles.add(sourceFile);
+                    continue;
+                }
+                if (targetFiles.size() > 0) {
+                    // the files collected so far come first, so that files are registered in the order of the sources
+                    copyFiles(sourceId, context, targetFiles, sourceFiles, batch);
+                    targetFiles = new PathSet();
+                    sourceFiles = new ArrayList<>();
+                }
+                if (filteredFile) {
+                    copyFilteredFile(sourceId, context, sourceFile, destinationFileName, filterBatch);
+                } else {
+                    copyFile(sourceId, context, sourceFile, destinationFileName, destinationFileName, batch, null);
+                }
             }
-
-            if (filtered && !context.isNonFilteredExtension(sourceFile.getName())) {
-                copyFilteredFile(sourceId, context, sourceFile, destinationFileName);
-            } else {
-                copyFile(sourceId, context, sourceFile, destinationFileName);
+            copyFiles(sourceId, context, targetFiles, sourceFiles, batch);
+            if (batch != null) {
+                batch.await();
+            }
+            if (filterBatch != null) {
+                filterBatch.await();
+            }
+        } finally {
+            if (batch != null) {
+                batch.cancel();
             }
+            if (filterBatch != null) {
+                filterBatch.cancel();
+            }
+        }
+    }
+
+    /**
+     * Registers the specified files at once, then copies them according to the result of their registration.
+     *
+     * @param targetFiles the relative paths according to the root of the webapp
+     * @param sourceFiles the files to copy, in the order of their target path
+     */
+    private void copyFiles(
+            String sourceId, WarPackagingContext context, PathSet targetFiles, List<File> sourceFiles, CopyBatch batch)
+            throws IOException {
+        final WebappStructure.Registrations registrations =
+                context.getWebappStructure().registerFiles(sourceId, targetFiles);
+        int index = 0;
+        for (String targetFilename : targetFiles) {
+            copyRegisteredFile(
+                    context,
+                    sourceFiles.get(index),
+                    targetFilename,
+                    registrations.getRegistration(index),
+                    registrations.getPreviousOwner(index),
+                    batch,
+                    null);
+            index++;
         }
     }
 
@@ -164,7 +240,38 @@ public abstract class AbstractWarPackagingTask implements WarPackagingTask {
             throws IOException
                 // CHECKSTYLE_ON: LineLength
             {
-        if (isExcluded(originalFilename, context.getPackagingIncludes(), context.getPackagingExcludes())) {
+        copyFile(sourceId, context, file, targetFilename, originalFilename, null, null);
+    }
+
+    /**
+     * Copy the specified artifact file if the target location has not yet already been used. The file is hard-linked
+     * rather than copied if the context provides an {@link WarPackagingContext#getArtifactLinker() artifact linker}.
+     *
+     * @param sourceId the source id
+     * @param context the context to use
+     * @param file the artifact file to copy
+     * @param targetFilename the relative path according to the root of the webapp
+     * @throws IOException if an error occurred while copying
+     * @since 3.5.2
+     */
+    protected void copyArtifactFile(String sourceId, WarPackagingContext context, File file, String targetFilename)
+            throws IOException {
+        copyFile(sourceId, context, file, targetFilename, targetFilename, null, context.getArtifactLinker());
+    }
+
+    /**
+     * Hands the actual copy over to the specified {@code batch} or {@code linker}, if any.
+     */
+    private void copyFile(
+            String sourceId,
+            final WarPackagingContext context,
+            final File file,
+            String targetFilename,
+            String originalFilename,
+            final CopyBatch batch,
+            final FileLinker linker)
+            throws IOException {
+        if (isExcluded(context, originalFilename)) {
             context.getLog().debug("Skipping excluded file: " + targetFilename);
             return;
         }
@@ -174,46 +281,49 @@ public abstract class AbstractWarPackagingTask implements WarPackagingTask {
             context.getWebappStructure()
                     .registerFile(sourceId, targetFilename, new WebappStructure.RegistrationCallback() {
                         public void registered(String ownerId, String targetFilename) throws IOException {
-                            copyFile(context, file, targetFile, targetFilename, false);
+                            copyRegisteredFile(
+                                    context, file, targetFilename, Registration.REGISTERED, null, batch, linker);
                         }
 
                         public void alreadyRegistered(String ownerId, String targetFilename) throws IOException {
-                            copyFile(context, file, targetFile, targetFilename, true);
+                            copyRegisteredFile(
+                                    context,
+                                    file,
+                                    targetFilename,
+                                    Registration.ALREADY_REGISTERED,
+                                    null,
+                                    batch,
+                                    linker);
                         }
 
                         public void refused(String ownerId, String targetFilename, String actualOwnerId)
                                 throws IOException {
-                            context.getLog()
-                                    .debug(" - "
-                                            + targetFilename
-                                            + " wasn't copied because it has "
-                                            + "already been packaged for overlay ["
-                                            + actualOwnerId + "].");
+                            copyRegisteredFile(
+                                    context, file, targetFilename, Registration.REFUSED, actualOwnerId, batch, linker);
                         }
 
                         public void superseded(String ownerId, String targetFilename, String deprecatedOwnerId)
                                 throws IOException {
-                            context.getLog()
-                                    .info("File ["
-                                            + targetFilename
-                                            + "] belonged to overlay ["
-                                            + deprecatedOwnerId
-                                            + "] so it will be overwritten.");
-                            copyFile(context, file, targetFile, targetFilename, false);
+                            copyRegisteredFile(
+                                    context,
+                                    file,
+                                    targetFilename,
+                                    Registration.SUPERSEDED,
+                                    deprecatedOwnerId,
+                                    batch,
+                                    linker);
                         }
 
                         public void supersededUnknownOwner(String ownerId, String targetFilename, String unknownOwnerId)
                                 throws IOException {
-                            // CHECKSTYLE_OFF: LineLength
-                            context.getLog()
-                                    .warn("File ["
-                                            + targetFilename
-                                            + "] belonged to overlay ["
-                                            + unknownOwnerId
-                                            + "] which does not exist anymore in the current project. It is recommended to invoke "
-                                            + "clean if the dependencies of the project changed.");
-                            // CHECKSTYLE_ON: LineLength
-                            copyFile(context, file, targetFile, targetFilename, false);
+                            copyRegisteredFile(
+                                    context,
+                                    file,
+                                    targetFilename,
+                                    Registration.SUPERSEDED_UNKNOWN_OWNER,
+                                    unknownOwnerId,
+                                    batch,
+                                    linker);
                         }
                     });
         } else if (!targetFile.exists() && !targetFile.mkdirs()) {
@@ -221,9 +331,85 @@ public abstract class AbstractWarPackagingTask implements WarPackagingTask {
         }
     }
 
+    /**
+     * Copies the specified file according to the result of its registration.
+     *
+     * @param previousOwner the owner the file was refused for or taken over from
+     */
+    private void copyRegisteredFile(
+            final WarPackagingContext context,
+            final File file,
+            final String targetFilename,
+            final Registration registration,
+            final String previousOwner,
+            final CopyBatch batch,
+            final FileLinker linker)
+            throws IOException {
+        if (isCopyRequired(context, targetFilename, registration, previousOwner)) {
+            final File targetFile = new File(context.getWebappDirectory(), targetFilename);
+            copyFile(
+                    context,
+                    file,
+                    targetFile,
+                    targetFilename,
+                    registration == Registration.ALREADY_REGISTERED,
+                    batch,
+                    linker);
+        }
+    }
+
+    /**
+     * Logs the result of the registration of the specified file and tells whether the file should be copied.
+     *
+     * @param context the packaging context
+     * @param targetFilename the relative path according to the root of the webapp
+     * @param registration the result of the registration of the file
+     * @param previousOwner the owner the file was refused for or taken over from
+     * @return {@code true} if the file should be copied, {@code false} if it belongs to another owner
+     * @since 3.5.2
+     */
+    protected boolean isCopyRequired(
+            WarPackagingContext context, String targetFilename, Registration registration, String previousOwner) {
+        switch (registration) {
+            case REGISTERED:
+            case ALREADY_REGISTERED:
+                return true;
+            case REFUSED:
+                context.getLog()
+                        .debug(" - "
+                                + targetFilename
+                                + " wasn't copied because it has "
+                                + "already been packaged for overlay ["
+                                + previousOwner + "].");
+                return false;
+            case SUPERSEDED:
+                context.getLog()
+                        .info("File ["
+                                + targetFilename
+                                + "] belonged to overlay ["
+                                + previousOwner
+                                + "] so it will be overwritten.");
+                return true;
+            default:
+                // CHECKSTYLE_OFF: LineLength
+                context.getLog()
+                        .warn("File ["
+                                + targetFilename
+                                + "] belonged to overlay ["
+                                + previousOwner
+                                + "] which does not exist anymore in the current project. It is recommended to invoke "
+                                + "clean if the dependencies of the project changed.");
+                // CHECKSTYLE_ON: LineLength
+                return true;
+        }
+    }
+
     /**
      * Copy the specified file if the target location has not yet already been used and filter its content with the
-     * configured filter properties.
+     * configured filter properties. If the context provides a {@link WarPackagingContext#getTokenScanner() token
+     * scanner}, a file that does not contain any expression according to it is copied as is. If the context provides a
+     * {@link WarPackagingContext#getFilteredFileCache() filtered file cache}, the output cached by a previous build is
+     * copied instead if it is still valid.
      *
      * The {@code targetFileName} is the relative path according to the root of the generated web application.
      *
@@ -238,32 +424,31 @@ public abstract class AbstractWarPackagingTask implements WarPackagingTask {
     protected boolean copyFilteredFile(
             String sourceId, final WarPackagingContext context, File file, String targetFilename)
             throws IOException, MojoExecutionException {
+        return copyFilteredFile(sourceId, context, file, targetFilename, null);
+    }
+
+    /**
+     * Copy the specified file if the target location has not yet already been used and filter its content, either on
+     * the calling thread or on a worker of the specified {@code batch}.
+     *
+     * @see #copyFilteredFile(String, WarPackagingContext, File, String)
+     */
+    boolean copyFilteredFile(
+            String sourceId,
+            final WarPackagingContext context,
+            final File file,
+            final String targetFilename,
+            CopyBatch batch)
+            throws IOException, MojoExecutionException {
         context.addResource(targetFilename);
 
         if (context.getWebappStructure().registerFile(sourceId, targetFilename)) {
             final File targetFile = new File(context.getWebappDirectory(), targetFilename);
-            final String encoding;
-            try {
-                if (isXmlFile(file)) {
-                    // For xml-files we extract the encoding from the files
-                    encoding = getEncoding(file);
-                } else if (isPropertiesFile(file) && StringUtils.isNotEmpty(context.getPropertiesEncoding())) {
-                    encoding = context.getPropertiesEncoding();
-                } else {
-                    // For all others we use the configured encoding
-                    encoding = context.getResourceEncoding();
-                }
-                // fix for MWAR-36, ensures that the parent dir are created first
-                targetFile.getParentFile().mkdirs();
-
-                context.getMavenFileFilter().copyFile(file, targetFile, true, context.getFilterWrappers(), encoding);
-            } catch (MavenFilteringException e) {
-                throw new MojoExecutionException(e.getMessage(), e);
+            if (batch == null) {
+                context.getLog().debug(filterFile(context, file, targetFile, targetFilename));
+            } else {
+                batch.submit(() -> filterFile(context, file, targetFile, targetFilename));
             }
-            // CHECKSTYLE_OFF: LineLength
-            // Add the file to the protected list
-            context.getLog().debug(" + " + targetFilename + " has been copied (filtered encoding='" + encoding + "').");
-            // CHECKSTYLE_ON: LineLength
             return true;
         } else {
             context.getLog()
@@ -272,6 +457,60 @@ public abstract class AbstractWarPackagingTask implements WarPackagingTask {
         }
     }
 
+    /**
+     * Filters the content of the specified file to the specified target. This may run on a filtering worker thread.
+     *
+     * @return the debug message describing the outcome
+     */
+    private String filterFile(WarPackagingContext context, File file, File targetFile, String targetFilename)
+            throws IOException, MojoExecutionException {
+        final String encoding;
+        try {
+            if (isXmlFile(file)) {
+                // For xml-files we extract the encoding from the files
+                encoding = getEncoding(context, file);
+            } else if (isPropertiesFile(file) && StringUtils.isNotEmpty(context.getPropertiesEncoding())) {
+                encoding = context.getPropertiesEncoding();
+            } else {
+                // For all others we use the configured encoding
+                encoding = context.getResourceEncoding();
+            }
+            final TokenScanner tokenScanner = context.getTokenScanner();
+            if (tokenScanner != null && !tokenScanner.mayContainToken(file, encoding)) {
+                // filtering would not change the file
+                BasicFileAttributes readAttributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+                if (isUpToDate(context, file, targetFile, readAttributes, false)) {
+                    return " * " + targetFilename + " is up to date.";
+                }
+                copyFileContent(context, file, targetFile, targetFilename, readAttributes);
+                return " + " + targetFilename + " has been copied.";
+            }
+            final FilteredFileCache cache = context.getFilteredFileCache();
+            final File cacheEntry = cache != null ? cache.getEntry(file, encoding, context.getFilterWrappers()) : null;
+            if (cacheEntry != null && cacheEntry.isFile()) {
+                if (context.getFileCopier() != null) {
+                    context.getFileCopier().copy(cacheEntry.toPath(), targetFile.toPath(), cacheEntry.length());
+                } else {
+                    FileUtils.copyFile(cacheEntry, targetFile);
+                }
+                if (cacheEntry.equals(file)) {
+                    return " + " + targetFilename + " has been copied (no expression to filter).";
+                }
+                return " + " + targetFilename + " has been copied from the filtered file cache.";
+            }
+            // fix for MWAR-36, ensures that the parent dir are created first
+            targetFile.getParentFile().mkdirs();
+
+            context.getMavenFileFilter().copyFile(file, targetFile, true, context.getFilterWrappers(), encoding);
+            if (cacheEntry != null) {
+                cache.store(targetFile, cacheEntry);
+            }
+        } catch (MavenFilteringException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+        return " + " + targetFilename + " has been copied (filtered encoding='" + encoding + "').";
+    }
+
     /**
      * Unpacks the specified file to the specified directory.
      *
@@ -282,6 +521,22 @@ public abstract class AbstractWarPackagingTask implements WarPackagingTask {
      */
     protected void doUnpack(WarPackagingContext context, File file, File unpackDirectory)
             throws MojoExecutionException {
+        doUnpack(context, file, unpackDirectory, null);
+    }
+
+    /**
+     * Unpacks the files of the specified archive matching the specified scanner to the specified directory. The other
+     * entries of the archive are skipped without being inflated.
+     *
+     * @param context the packaging context
+     * @param file the file to unpack
+     * @param unpackDirectory the directory to use for th unpacked file
+     * @param scanner the scanner selecting the files to unpack, or {@code null} to unpack the whole archive
+     * @throws MojoExecutionException if an error occurred while unpacking the file
+     * @since 3.5.2
+     */
+    protected void doUnpack(WarPackagingContext context, File file, File unpackDirectory, final FileScanner scanner)
+            throws MojoExecutionException {
         String archiveExt = FileUtils.getExtension(file.getAbsolutePath()).toLowerCase();
 
         try {
@@ -289,6 +544,10 @@ public abstract class AbstractWarPackagingTask implements WarPackagingTask {
             unArchiver.setSourceFile(file);
             unArchiver.setDestDirectory(unpackDirectory);
             unArchiver.setOverwrite(true);
+            if (scanner != null) {
+                unArchiver.setFileSelectors(
+                        new FileSelector[] {fileInfo -> fileInfo.isFile() && scanner.isIncluded(fileInfo.getName())});
+            }
             unArchiver.extract();
         } catch (ArchiverException e) {
             throw new MojoExecutionException(
@@ -323,9 +582,7 @@ public abstract class AbstractWarPackagingTask implements WarPackagingTask {
         context.addResource(targetFilename);
 
         BasicFileAttributes readAttributes = Files.readAttributes(source.toPath(), BasicFileAttributes.class);
-        if (onlyIfModified
-                && destination.lastModified()
-                        >= readAttributes.lastModifiedTime().toMillis()) {
+        if (isUpToDate(context, source, destination, readAttributes, onlyIfModified)) {
             context.getLog().debug(" * " + targetFilename + " is up to date.");
             return false;
         } else {
@@ -343,23 +600,152 @@ public abstract class AbstractWarPackagingTask implements WarPackagingTask {
                     throw new IOException(msg, e);
                 }
             } else {
-                FileUtils.copyFile(source.getCanonicalFile(), destination);
-                // preserve timestamp
-                destination.setLastModified(readAttributes.lastModifiedTime().toMillis());
-                // normalize permissions: clear executable, set read-for-all, write-for-owner
-                // on all copied files (not just WEB-INF/lib jars)
-                boolean ok = destination.setExecutable(false, false);
-                ok &= destination.setReadable(true, false);
-                ok &= destination.setWritable(true, true);
-                if (!ok) {
-                    context.getLog().debug("Could not normalize permissions for " + targetFilename);
-                }
+                copyFileContent(context, source, destination, targetFilename, readAttributes);
                 context.getLog().debug(" + " + targetFilename + " has been copied.");
             }
             return true;
         }
     }
 
+    /**
+     * Links the specified file if a {@code linker} is given and linking is supported. Otherwise copies the file on the
+     * calling thread, or submits the copy to the specified {@code batch}.
+     *
+     * @see #copyFile(WarPackagingContext, File, File, String, boolean)
+     */
+    private void copyFile(
+            final WarPackagingContext context,
+            final File source,
+            final File destination,
+            final String targetFilename,
+            final boolean onlyIfModified,
+            CopyBatch batch,
+            FileLinker linker)
+            throws IOException {
+        // a link shares the permissions of its source, only link files that a copy would leave untouched
+        if (linker != null
+                && hasNormalizedPermissions(source.toPath())
+                && linker.link(source.toPath(), destination.toPath())) {
+            context.addResource(targetFilename);
+            context.getLog().debug(" + " + targetFilename + " has been linked.");
+            return;
+        }
+        if (batch == null) {
+            copyFile(context, source, destination, targetFilename, onlyIfModified);
+            return;
+        }
+        context.addResource(targetFilename);
+        batch.submit(() -> {
+            BasicFileAttributes readAttributes = Files.readAttributes(source.toPath(), BasicFileAttributes.class);
+            if (isUpToDate(context, source, destination, readAttributes, onlyIfModified)) {
+                return " * " + targetFilename + " is up to date.";
+            }
+            copyFileContent(context, source, destination, targetFilename, readAttributes);
+            return " + " + targetFilename + " has been copied.";
+        });
+    }
+
+    /**
+     * Copies the content of a regular file, preserving its timestamp and normalizing its permissions. This may run
+     * on a copy worker thread.
+     */
+    private void copyFileContent(
+            WarPackagingContext context,
+            File source,
+            File destination,
+            String targetFilename,
+            BasicFileAttributes readAttributes)
+            throws IOException {
+        final FileCopier copier = context.getFileCopier();
+        if (copier == null) {
+            FileUtils.copyFile(source.getCanonicalFile(), destination);
+        } else if (!copier.copy(source.toPath(), destination.toPath(), readAttributes.size())) {
+            // the source is its own destination, e.g. a web resource of the webapp source directory when inplace
+            return;
+        }
+        // preserve timestamp and normalize permissions: clear executable, set read-for-all, write-for-owner
+        // on all copied files (not just WEB-INF/lib jars)
+        if (copier == null || !copier.applyAttributes(destination.toPath(), readAttributes.lastModifiedTime())) {
+            destination.setLastModified(readAttributes.lastModifiedTime().toMillis());
+            boolean ok = destination.setExecutable(false, false);
+            ok &= destination.setReadable(true, false);
+            ok &= destination.setWritable(true, true);
+            if (!ok) {
+                context.getLog().debug("Could not normalize permissions for " + targetFilename);
+            }
+        }
+        if (context.getDigestIndex() != null) {
+            context.getDigestIndex().copied(source.toPath(), readAttributes, destination.toPath());
+        }
+    }
+
+    /**
+     * Specify if the {@code destination} does not need to be copied again. If {@code onlyIfModified} is set, a
+     * destination that is newer than its source is up to date. If the context provides a
+     * {@link WarPackagingContext#getDigestIndex() digest index}, a destination holding the same content as its source
+     * is up to date as well.
+     */
+    private boolean isUpToDate(
+            WarPackagingContext context,
+            File source,
+            File destination,
+            BasicFileAttributes readAttributes,
+            boolean onlyIfModified)
+            throws IOException {
+        if (onlyIfModified && destination.lastModified() >= readAttributes.lastModifiedTime().toMillis()) {
+            return true;
+        }
+        final DigestIndex digestIndex = context.getDigestIndex();
+        return digestIndex != null
+                && readAttributes.isRegularFile()
+                && digestIndex.hasSameContent(source.toPath(), readAttributes, destination.toPath());
+    }
+
+    /**
+     * Specify if the permissions of the specified file are the ones a copy would set: not executable, readable for
+     * all and writable for the owner.
+     *
+     * @param file the file to check
+     * @return true if the permissions of the file would not change when copied, or if they are not supported
+     * @throws IOException if the permissions could not be read
+     */
+    private static boolean hasNormalizedPermissions(Path file) throws IOException {
+        final PosixFileAttributeView view = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+        if (view == null) {
+            return true;
+        }
+        final Set<PosixFilePermission> permissions = view.readAttributes().permissions();
+        return permissions.contains(PosixFilePermission.OWNER_READ)
+                && permissions.contains(PosixFilePermission.GROUP_READ)
+                && permissions.contains(PosixFilePermission.OTHERS_READ)
+                && permissions.contains(PosixFilePermission.OWNER_WRITE)
+                && !permissions.contains(PosixFilePermission.OWNER_EXECUTE)
+                && !permissions.contains(PosixFilePermission.GROUP_EXECUTE)
+                && !permissions.contains(PosixFilePermission.OTHERS_EXECUTE);
+    }
+
+    /**
+     * Creates the batch to use to copy files in parallel, if enabled.
+     *
+     * @param context the packaging context
+     * @return the copy batch or {@code null} if files are copied on the calling thread
+     */
+    private CopyBatch createCopyBatch(WarPackagingContext context) {
+        final ExecutorService executor = context.getCopyExecutor();
+        return executor != null ? new CopyBatch(executor, context.getLog()) : null;
+    }
+
+    /**
+     * Creates the batch to use to filter files in parallel, if enabled.
+     *
+     * @param context the packaging context
+     * @return the filtering batch or {@code null} if files are filtered on the calling thread
+     */
+    CopyBatch createFilteringBatch(WarPackagingContext context) {
+        final ExecutorService executor = context.getFilteringExecutor();
+        return executor != null ? new CopyBatch(executor, context.getLog()) : null;
+    }
+
     /**
      * Get the encoding from an XML-file.
      *
@@ -374,6 +760,60 @@ public abstract class AbstractWarPackagingTask implements WarPackagingTask {
         }
     }
 
+    /**
+     * Get the encoding from an XML-file, through the {@link WarPackagingContext#getEncodingCache() encoding cache} of
+     * the context so that an unchanged file is not read again. The encoding of a new or changed file is detected with
+     * {@link #getEncoding(File)}.
+     *
+     * @param context the packaging context
+     * @param xmlFile the XML-file
+     * @return the encoding of the XML-file, or UTF-8 if it's not specified in the file
+     * @throws java.io.IOException if an error occurred while reading the file
+     * @since 3.5.2
+     */
+    protected String getEncoding(WarPackagingContext context, File xmlFile) throws IOException {
+        final EncodingCache encodingCache = context.getEncodingCache();
+        return encodingCache != null ? encodingCache.getEncoding(xmlFile, this::getEncoding) : getEncoding(xmlFile);
+    }
+
+    /**
+     * Check whether the specified file is excluded or not, with the {@link WarPackagingContext#getPackagingMatcher()
+     * packaging matcher} of the context if any.
+     *
+     * @param context the packaging context
+     * @param targetFilename the target filename
+     * @return true if the file is excluded
+     */
+    boolean isExcluded(WarPackagingContext context, String targetFilename) {
+        final PackagingMatcher packagingMatcher = context.getPackagingMatcher();
+        if (packagingMatcher != null) {
+            return packagingMatcher.isExcluded(targetFilename);
+        }
+        return isExcluded(targetFilename, context.getPackagingIncludes(), context.getPackagingExcludes());
+    }
+
+    /**
+     * Check whether the specified file is excluded or not.
+     *
+     * @param targetFilename the target filename
+     * @param packagingIncludes the includes
+     * @param packagingExcludes the excludes
+     * @return true if the file is excluded
+     */
+    private boolean isExcluded(String targetFilename, List<String> packagingIncludes, List<String> packagingExcludes) {
+        for (String exclude : packagingExcludes) {
+            if (SelectorUtils.matchPath(exclude.trim(), targetFilename)) {
+                return true;
+            }
+        }
+        for (String include : packagingIncludes) {
+            if (SelectorUtils.matchPath(include.trim(), targetFilename)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Returns the file to copy. If the includes are {@code null} or empty, the default includes are used.
      *
@@ -400,26 +840,42 @@ public abstract class AbstractWarPackagingTask implements WarPackagingTask {
             File baseDir, String[] includes, String[] excludes, boolean includeDirectories)
                 // CHECKSTYLE_ON: LineLength
             {
-        final DirectoryScanner scanner = new DirectoryScanner();
-        scanner.setBasedir(baseDir);
-
-        if (excludes != null) {
-            scanner.setExcludes(excludes);
-        }
-        scanner.addDefaultExcludes();
+        return getFilesToIncludes(baseDir, includes, excludes, includeDirectories, 0);
+    }
 
-        if (includes != null && includes.length > 0) {
-            scanner.setIncludes(includes);
-        } else {
-            scanner.setIncludes(DEFAULT_INCLUDES);
-        }
+    /**
+     * Returns the file to copy. If the includes are {@code null} or empty, the default includes are used. Very large
+     * directories are scanned in parallel, as configured by {@link WarPackagingContext#getScanForkThreshold()}.
+     *
+     * @param context the packaging context
+     * @param baseDir the base directory to start from
+     * @param includes the includes
+     * @param excludes the excludes
+     * @param includeDirectories include directories yes or not
+     * @return the files to copy
+     * @since 3.5.2
+     */
+    protected PathSet getFilesToIncludes(
+            WarPackagingContext context,
+            File baseDir,
+            String[] includes,
+            String[] excludes,
+            boolean includeDirectories) {
+        return getFilesToIncludes(baseDir, includes, excludes, includeDirectories, context.getScanForkThreshold());
+    }
 
-        scanner.scan();
+    private PathSet getFilesToIncludes(
+            File baseDir, String[] includes, String[] excludes, boolean includeDirectories, int forkThreshold) {
+        final String[] includePatterns = includes != null && includes.length > 0 ? includes : DEFAULT_INCLUDES;
+        final FileScanner scanner = new FileScanner(includePatterns, excludes, true);
+        scanner.setForkThreshold(forkThreshold);
 
-        PathSet pathSet = new PathSet(scanner.getIncludedFiles());
+        final PathSet pathSet = new PathSet();
+        final PathSet directories = includeDirectories ? new PathSet() : null;
+        scanner.scan(baseDir, pathSet, directories);
 
         if (includeDirectories) {
-            pathSet.addAll(scanner.getIncludedDirectories());
+            pathSet.addAll(directories);
         }
 
         return pathSet;
@@ -483,26 +939,4 @@ public abstract class AbstractWarPackagingTask implements WarPackagingTask {
     private boolean isXmlFile(File file) {
         return isFileOfType(file, ".xml");
     }
-
-    /**
-     * Check whether the specified file is excluded or not.
-     *
-     * @param targetFilename the target filename
-     * @param packagingIncludes the includes
-     * @param packagingExcludes the excludes
-     * @return true if the file is excluded
-     */
-    private boolean isExcluded(String targetFilename, List<String> packagingIncludes, List<String> packagingExcludes) {
-        for (String exclude : packagingExcludes) {
-            if (SelectorUtils.matchPath(exclude.trim(), targetFilename)) {
-                return true;
-            }
-        }
-        for (String include : packagingIncludes) {
-            if (SelectorUtils.matchPath(include.trim(), targetFilename)) {
-                return false;
-            }
-        }
-        return true;
-    }
 }
@@ -91,22 +91,22 @@ public class ArtifactsPackagingTask extends AbstractWarPackagingTask {
                     try {
                         String type = artifact.getType();
                         if ("tld".equals(type)) {
-                            copyFile(id, context, artifact.getFile(), TLD_PATH + targetFileName);
+                            copyArtifactFile(id, context, artifact.getFile(), TLD_PATH + targetFileName);
                         } else if ("aar".equals(type)) {
-                            copyFile(id, context, artifact.getFile(), SERVICES_PATH + targetFileName);
+                            copyArtifactFile(id, context, artifact.getFile(), SERVICES_PATH + targetFileName);
                         } else if ("mar".equals(type)) {
-                            copyFile(id, context, artifact.getFile(), MODULES_PATH + targetFileName);
+                            copyArtifactFile(id, context, artifact.getFile(), MODULES_PATH + targetFileName);
                         } else if ("xar".equals(type)) {
-                            copyFile(id, context, artifact.getFile(), EXTENSIONS_PATH + targetFileName);
+                            copyArtifactFile(id, context, artifact.getFile(), EXTENSIONS_PATH + targetFileName);
                         } else if ("jar".equals(type)
                                 || "ejb".equals(type)
                                 || "ejb-client".equals(type)
                                 || "test-jar".equals(type)
                                 || "bundle".equals(type)) {
-                            copyFile(id, context, artifact.getFile(), LIB_PATH + targetFileName);
+                            copyArtifactFile(id, context, artifact.getFile(), LIB_PATH + targetFileName);
                         } else if ("par".equals(type)) {
                             targetFileName = targetFileName.substring(0, targetFileName.lastIndexOf('.')) + ".jar";
-                            copyFile(id, context, artifact.getFile(), LIB_PATH + targetFileName);
+                            copyArtifactFile(id, context, artifact.getFile(), LIB_PATH + targetFileName);
                         } else if ("war".equals(type)) {
                             // Nothing to do here, it is an overlay and it's already handled
                             context.getLog()
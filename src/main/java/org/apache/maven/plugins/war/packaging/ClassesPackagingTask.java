@@ -61,7 +61,7 @@ public class ClassesPackagingTask extends AbstractWarPackagingTask {
             if (context.archiveClasses()) {
                 generateJarArchive(context);
             } else {
-                final PathSet sources = getFilesToIncludes(context.getClassesDirectory(), null, null);
+                final PathSet sources = getFilesToIncludes(context, context.getClassesDirectory(), null, null, false);
                 try {
                     copyFiles(
                             currentProjectOverlay.getId(),
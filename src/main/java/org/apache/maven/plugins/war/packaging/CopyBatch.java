@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.packaging;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A batch of file copies, or of file filterings, running on a pool of workers.
+ *
+ * Copies are submitted in the order decided by the packaging task and their outcome is logged in that very same
+ * order, so the output of a parallel build does not differ from a serial one. The number of pending copies is bounded
+ * so that large source trees do not queue up all their files at once.
+ *
+ * @since 3.5.2
+ */
+class CopyBatch {
+    private static final int MAX_PENDING_COPIES = 1024;
+
+    private final ExecutorService executor;
+
+    private final Log log;
+
+    private final Deque<Future<String>> pendingCopies = new ArrayDeque<>();
+
+    /**
+     * @param executor the executor running the copies
+     * @param log the log to use to report the outcome of each copy
+     */
+    CopyBatch(ExecutorService executor, Log log) {
+        this.executor = executor;
+        this.log = log;
+    }
+
+    /**
+     * Submits a copy. The copy returns the debug message describing its outcome, or {@code null}.
+     *
+     * @param copy the copy to run
+     * @throws IOException if a previously submitted copy failed
+     */
+    void submit(Callable<String> copy) throws IOException {
+        if (pendingCopies.size() >= MAX_PENDING_COPIES) {
+            complete(pendingCopies.removeFirst());
+        }
+        pendingCopies.addLast(executor.submit(copy));
+    }
+
+    /**
+     * Waits for all the submitted copies to complete.
+     *
+     * @throws IOException if a copy failed
+     */
+    void await() throws IOException {
+        while (!pendingCopies.isEmpty()) {
+            complete(pendingCopies.removeFirst());
+        }
+    }
+
+    /**
+     * Cancels the copies that are still pending, if any.
+     */
+    void cancel() {
+        for (Future<String> pendingCopy : pendingCopies) {
+            pendingCopy.cancel(true);
+        }
+        pendingCopies.clear();
+    }
+
+    private void complete(Future<String> copy) throws IOException {
+        final String message;
+        try {
+            message = copy.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a file copy", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+        if (message != null) {
+            log.debug(message);
+        }
+    }
+}
@@ -20,10 +20,28 @@ package org.apache.maven.plugins.war.packaging;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.war.Overlay;
+import org.apache.maven.plugins.war.util.FileScanner;
 import org.apache.maven.plugins.war.util.PathSet;
+import org.apache.maven.plugins.war.util.UnpackMarker;
+import org.apache.maven.plugins.war.util.WebappStructure;
 import org.codehaus.plexus.util.FileUtils;
 
 /**
@@ -32,8 +50,18 @@ import org.codehaus.plexus.util.FileUtils;
  * @author Stephane Nicoll
  */
 public class OverlayPackagingTask extends AbstractWarPackagingTask {
+    /**
+     * The extensions of the overlays that can be read as zip archives.
+     */
+    private static final Set<String> STREAMED_EXTENSIONS = new HashSet<>(Arrays.asList("war", "zip", "jar"));
+
     private final Overlay overlay;
 
+    /**
+     * The unpack of the overlay started ahead of its merge, if any.
+     */
+    private Future<File> unpack;
+
     /**
      * @param overlay {@link #overlay}
      * @param currentProjectOverlay current overlay
@@ -48,6 +76,21 @@ public class OverlayPackagingTask extends AbstractWarPackagingTask {
         this.overlay = overlay;
     }
 
+    /**
+     * Starts unpacking the overlay with the {@link WarPackagingContext#getUnpackExecutor() unpack executor} of the
+     * specified context, so that {@link #performPackaging(WarPackagingContext)} only has to wait for the unpacked
+     * overlay before merging it. Does nothing if there is no unpack executor, or if the overlay is skipped or is not
+     * unpacked.
+     *
+     * @param context the packaging context
+     * @since 3.5.2
+     */
+    public void startUnpack(final WarPackagingContext context) {
+        if (context.getUnpackExecutor() != null && !overlay.shouldSkip() && !isStreamed(context)) {
+            unpack = context.getUnpackExecutor().submit(() -> unpackOverlay(context, overlay));
+        }
+    }
+
     @Override
     public void performPackaging(WarPackagingContext context) throws MojoExecutionException {
         context.getLog()
@@ -58,34 +101,156 @@ public class OverlayPackagingTask extends AbstractWarPackagingTask {
             try {
                 context.getLog().info("Processing overlay [" + overlay + "]");
 
+                // overlay.getTargetPath() must ended with /
+                // if not we add it
+                String targetPath = overlay.getTargetPath();
+                if (targetPath != null && !targetPath.endsWith("/")) {
+                    targetPath = targetPath + "/";
+                }
+
+                if (isStreamed(context)) {
+                    streamOverlay(context, overlay, targetPath);
+                    return;
+                }
+
                 // Step1: Extract if necessary
-                final File tmpDir = unpackOverlay(context, overlay);
+                final File tmpDir = unpack != null ? awaitUnpack() : unpackOverlay(context, overlay);
 
                 // Step2: setup
-                final PathSet includes = getFilesToIncludes(tmpDir, overlay.getIncludes(), overlay.getExcludes());
+                final PathSet includes =
+                        getFilesToIncludes(context, tmpDir, overlay.getIncludes(), overlay.getExcludes(), false);
 
                 // Copy
-                if (null == overlay.getTargetPath()) {
-                    copyFiles(overlay.getId(), context, tmpDir, includes, overlay.isFiltered());
-                } else {
-                    // overlay.getTargetPath() must ended with /
-                    // if not we add it
-                    String targetPath = overlay.getTargetPath();
-                    if (!targetPath.endsWith("/")) {
-                        targetPath = targetPath + "/";
-                    }
-                    copyFiles(overlay.getId(), context, tmpDir, includes, targetPath, overlay.isFiltered());
-                }
+                copyFiles(overlay.getId(), context, tmpDir, includes, targetPath, overlay.isFiltered());
             } catch (IOException e) {
                 throw new MojoExecutionException("Failed to copy file for overlay [" + overlay + "]", e);
             }
         }
     }
 
+    private File awaitUnpack() throws MojoExecutionException {
+        try {
+            return unpack.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while unpacking overlay [" + overlay + "]", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MojoExecutionException) {
+                throw (MojoExecutionException) e.getCause();
+            }
+            throw new MojoExecutionException("Failed to unpack overlay [" + overlay + "]", e.getCause());
+        }
+    }
+
+    /**
+     * Specify if the entries of the overlay can be written straight from its archive to the webapp directory. Filtered
+     * overlays and overlays that are not zip archives are unpacked instead.
+     */
+    private boolean isStreamed(WarPackagingContext context) {
+        final File file = overlay.getArtifact().getFile();
+        return context.isStreamOverlays()
+                && !overlay.isFiltered()
+                && file.isFile()
+                && STREAMED_EXTENSIONS.contains(FileUtils.getExtension(file.getName()).toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Writes the entries of the specified overlay straight from its archive to the webapp directory.
+     *
+     * The entries are matched against the includes and excludes of the overlay as if the archive was unpacked, then
+     * registered at once. Only the entries that the overlay owns are decompressed, in place: excluded entries and
+     * entries that belong to another owner are never read.
+     *
+     * @param context the packaging context
+     * @param overlay the overlay
+     * @param targetPrefix the prefix to add to the entry names, ending with '/', or {@code null}
+     * @throws IOException if the archive could not be read, if an entry could not be written or if an entry would be
+     *             written outside of the webapp directory
+     * @since 3.5.2
+     */
+    protected void streamOverlay(WarPackagingContext context, Overlay overlay, String targetPrefix)
+            throws IOException {
+        final FileScanner scanner = new FileScanner(getIncludes(overlay), getExcludes(overlay), true);
+        final Path webappDirectory = context.getWebappDirectory().toPath().toAbsolutePath().normalize();
+
+        try (ZipFile zipFile = new ZipFile(overlay.getArtifact().getFile())) {
+            final PathSet targetFiles = new PathSet();
+            final List<ZipEntry> entries = new ArrayList<>();
+            for (Enumeration<? extends ZipEntry> e = zipFile.entries(); e.hasMoreElements(); ) {
+                final ZipEntry entry = e.nextElement();
+                if (entry.isDirectory() || !scanner.isIncluded(entry.getName())) {
+                    continue;
+                }
+                final String targetFilename = targetPrefix == null ? entry.getName() : targetPrefix + entry.getName();
+                if (!webappDirectory.resolve(targetFilename).normalize().startsWith(webappDirectory)) {
+                    throw new IOException("Entry [" + entry.getName() + "] of overlay [" + overlay
+                            + "] is outside of the webapp directory");
+                }
+                if (isExcluded(context, targetFilename)) {
+                    context.getLog().debug("Skipping excluded file: " + targetFilename);
+                } else if (!targetFiles.contains(targetFilename)) {
+                    targetFiles.add(targetFilename);
+                    entries.add(entry);
+                }
+            }
+
+            final WebappStructure.Registrations registrations =
+                    context.getWebappStructure().registerFiles(overlay.getId(), targetFiles);
+            int index = 0;
+            for (String targetFilename : targetFiles) {
+                if (isCopyRequired(
+                        context,
+                        targetFilename,
+                        registrations.getRegistration(index),
+                        registrations.getPreviousOwner(index))) {
+                    extractEntry(
+                            context,
+                            zipFile,
+                            entries.get(index),
+                            targetFilename,
+                            registrations.getRegistration(index) == WebappStructure.Registration.ALREADY_REGISTERED);
+                }
+                index++;
+            }
+        }
+    }
+
+    /**
+     * Writes the specified entry to its location in the webapp directory, preserving its timestamp. If
+     * {@code onlyIfModified} is set, an existing file that is newer than the entry is left untouched.
+     */
+    private void extractEntry(
+            WarPackagingContext context,
+            ZipFile zipFile,
+            ZipEntry entry,
+            String targetFilename,
+            boolean onlyIfModified)
+            throws IOException {
+        context.addResource(targetFilename);
+        final File targetFile = new File(context.getWebappDirectory(), targetFilename);
+        final long time = entry.getTime();
+        if (onlyIfModified && time != -1 && targetFile.lastModified() >= time) {
+            context.getLog().debug(" * " + targetFilename + " is up to date.");
+            return;
+        }
+        Files.createDirectories(targetFile.getParentFile().toPath());
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            Files.copy(in, targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (time != -1) {
+            targetFile.setLastModified(time);
+        }
+        context.getLog().debug(" + " + targetFilename + " has been extracted.");
+    }
+
     /**
      * Unpacks the specified overlay.
      *
-     * Makes sure to skip the unpack process if the overlay has already been unpacked.
+     * Only the files matching the includes and excludes of the overlay are unpacked. Makes sure to skip the unpack
+     * process if the overlay has already been unpacked: a marker written next to the unpack directory records the
+     * archive and the patterns of the last complete extraction, and whether it produced no file. If the marker does
+     * not match, or if the unpack directory has been emptied since, the unpack directory is cleaned before the overlay
+     * is unpacked again. This method may be called concurrently for different overlays.
      *
      * @param context the packaging context
      * @param overlay the overlay
@@ -94,19 +259,84 @@ public class OverlayPackagingTask extends AbstractWarPackagingTask {
      */
     protected File unpackOverlay(WarPackagingContext context, Overlay overlay) throws MojoExecutionException {
         final File tmpDir = getOverlayTempDirectory(context, overlay);
+        final Object lock = context.getUnpackLock(tmpDir);
+        // without a lock, the overlays are only unpacked on the calling thread
+        synchronized (lock != null ? lock : tmpDir) {
+            unpackOverlay(context, overlay, tmpDir);
+        }
+        return tmpDir;
+    }
 
-        // TODO: not sure it's good, we should reuse the markers of the dependency plugin
-        if (FileUtils.sizeOfDirectory(tmpDir) == 0
-                || overlay.getArtifact().getFile().lastModified() > tmpDir.lastModified()) {
-            doUnpack(context, overlay.getArtifact().getFile(), tmpDir);
-        } else {
+    private void unpackOverlay(WarPackagingContext context, Overlay overlay, File tmpDir)
+            throws MojoExecutionException {
+        final File archive = overlay.getArtifact().getFile();
+        final UnpackMarker marker = new UnpackMarker(getUnpackMarkerFile(tmpDir));
+
+        final String[] includes = getIncludes(overlay);
+        final String[] excludes = getExcludes(overlay);
+        if (isUnpacked(context, overlay, marker, includes, excludes, isEmpty(tmpDir))) {
             context.getLog().debug("Overlay [" + overlay + "] was already unpacked");
+            return;
         }
-        return tmpDir;
+        try {
+            marker.delete();
+            FileUtils.cleanDirectory(tmpDir);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to clean the unpack directory of overlay [" + overlay + "]", e);
+        }
+        doUnpack(context, archive, tmpDir, new FileScanner(includes, excludes, true));
+        try {
+            marker.write(archive, includes, excludes, isEmpty(tmpDir));
+        } catch (IOException e) {
+            context.getLog().warn("Could not write the unpack marker of overlay [" + overlay + "]", e);
+        }
+    }
+
+    private boolean isUnpacked(
+            WarPackagingContext context,
+            Overlay overlay,
+            UnpackMarker marker,
+            String[] includes,
+            String[] excludes,
+            boolean empty) {
+        try {
+            return marker.isUpToDate(overlay.getArtifact().getFile(), includes, excludes, empty);
+        } catch (IOException e) {
+            context.getLog().debug("Could not read the unpack marker of overlay [" + overlay + "]: " + e);
+            return false;
+        }
+    }
+
+    private static String[] getIncludes(Overlay overlay) {
+        return overlay.getIncludes() != null && overlay.getIncludes().length > 0
+                ? overlay.getIncludes()
+                : DEFAULT_INCLUDES;
+    }
+
+    private static String[] getExcludes(Overlay overlay) {
+        return overlay.getExcludes() != null ? overlay.getExcludes() : new String[0];
     }
 
     /**
-     * Returns the directory to use to unpack the specified overlay.
+     * Specify if the specified unpack directory is empty, either because the extraction matched no entry, or because
+     * the directory was deleted while its marker was not.
+     */
+    private static boolean isEmpty(File tmpDir) {
+        final String[] names = tmpDir.list();
+        return names == null || names.length == 0;
+    }
+
+    /**
+     * Returns the marker file of the specified unpack directory, next to it so that it is never packaged.
+     */
+    private static File getUnpackMarkerFile(File tmpDir) {
+        return new File(tmpDir.getParentFile(), tmpDir.getName() + ".unpacked");
+    }
+
+    /**
+     * Returns the directory to use to unpack the specified overlay. As only the files matching the patterns of the
+     * overlay are unpacked, overlays of the same artifact with other patterns than the default ones use a directory of
+     * their own.
      *
      * @param context the packaging context
      * @param overlay the overlay
@@ -121,6 +351,12 @@ public class OverlayPackagingTask extends AbstractWarPackagingTask {
         if (overlay.getClassifier() != null) {
             directoryName = directoryName + "-" + overlay.getClassifier();
         }
+        final String[] includes = getIncludes(overlay);
+        final String[] excludes = getExcludes(overlay);
+        if (!Arrays.equals(includes, Overlay.DEFAULT_INCLUDES) || !Arrays.equals(excludes, Overlay.DEFAULT_EXCLUDES)) {
+            final int patternsHash = 31 * Arrays.hashCode(includes) + Arrays.hashCode(excludes);
+            directoryName = directoryName + "-" + Integer.toHexString(patternsHash);
+        }
         final File result = new File(groupIdDir, directoryName);
         if (!result.exists()) {
             result.mkdirs();
@@ -20,11 +20,19 @@ package org.apache.maven.plugins.war.packaging;
 
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.maven.archiver.MavenArchiveConfiguration;
 import org.apache.maven.artifact.handler.manager.ArtifactHandlerManager;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.war.util.DigestIndex;
+import org.apache.maven.plugins.war.util.EncodingCache;
+import org.apache.maven.plugins.war.util.FileCopier;
+import org.apache.maven.plugins.war.util.FileLinker;
+import org.apache.maven.plugins.war.util.FilteredFileCache;
+import org.apache.maven.plugins.war.util.PackagingMatcher;
+import org.apache.maven.plugins.war.util.TokenScanner;
 import org.apache.maven.plugins.war.util.WebappStructure;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.filtering.FilterWrapper;
@@ -236,8 +244,10 @@ public interface WarPackagingContext {
     void addResource(String resource);
 
     /**
-     * Delete outdated resources, ie resources that are found in the war but that were not added by the current
-     * packaging process, then are supposed to be content from a previous run.
+     * Delete outdated resources, ie resources that were added by the previous packaging process in the same webapp
+     * directory but not by the current one. The resources of both processes are kept in a journal, and the outdated
+     * ones are deleted once all the packaging tasks completed. Without a journal of the previous process, the files
+     * of the webapp directory older than the build are taken as its resources.
      * This prevent calling <code>mvn clean</code> when resources are removed.
      *
      * @see #addResource
@@ -264,4 +274,150 @@ public interface WarPackagingContext {
      * @since 3.4.1
      */
     List<String> getPackagingIncludes();
+
+    /**
+     * Returns the packaging includes and excludes, compiled once for the whole build. Returns {@code null} if the
+     * {@link #getPackagingIncludes() packaging includes} and {@link #getPackagingExcludes() excludes} must be matched
+     * as is.
+     *
+     * @return the packaging matcher or {@code null}
+     * @since 3.5.2
+     */
+    default PackagingMatcher getPackagingMatcher() {
+        return null;
+    }
+
+    /**
+     * Returns the executor to use to copy files in parallel. Returns {@code null} if files must be copied on the
+     * calling thread.
+     *
+     * @return the copy executor or {@code null}
+     * @since 3.5.2
+     */
+    default ExecutorService getCopyExecutor() {
+        return null;
+    }
+
+    /**
+     * Returns the linker to use to place the project's artifacts into the webapp. Returns {@code null} if artifacts
+     * must be copied.
+     *
+     * @return the artifact linker or {@code null}
+     * @since 3.5.2
+     */
+    default FileLinker getArtifactLinker() {
+        return null;
+    }
+
+    /**
+     * Returns the index to use to detect that a file of the webapp already holds the content of its source. Returns
+     * {@code null} if files are compared by timestamp only.
+     *
+     * @return the digest index or {@code null}
+     * @since 3.5.2
+     */
+    default DigestIndex getDigestIndex() {
+        return null;
+    }
+
+    /**
+     * Returns the {@link FileCopier} to use to copy the content of files into the webapp. Returns {@code null} if files
+     * are copied with {@code FileUtils.copyFile}.
+     *
+     * @return the file copier or {@code null}
+     * @since 3.5.2
+     */
+    default FileCopier getFileCopier() {
+        return null;
+    }
+
+    /**
+     * Returns the cache of the output of filtered files. Returns {@code null} if files are always filtered.
+     *
+     * @return the filtered file cache or {@code null}
+     * @since 3.5.2
+     */
+    default FilteredFileCache getFilteredFileCache() {
+        return null;
+    }
+
+    /**
+     * Returns the cache of the encoding of the XML files that are filtered. Returns {@code null} if the encoding is
+     * read from each file.
+     *
+     * @return the encoding cache or {@code null}
+     * @since 3.5.2
+     */
+    default EncodingCache getEncodingCache() {
+        return null;
+    }
+
+    /**
+     * Returns the scanner used to detect the files that filtering would not change, so that they are copied instead.
+     * Returns {@code null} if all files are filtered.
+     *
+     * @return the token scanner or {@code null}
+     * @since 3.5.2
+     */
+    default TokenScanner getTokenScanner() {
+        return null;
+    }
+
+    /**
+     * Returns the executor to use to filter files in parallel. Returns {@code null} if files are filtered on the
+     * calling thread. When called from a worker of this executor, {@link #getFilterWrappers()} returns the filter
+     * wrappers of that worker.
+     *
+     * @return the filtering executor or {@code null}
+     * @since 3.5.2
+     */
+    default ExecutorService getFilteringExecutor() {
+        return null;
+    }
+
+    /**
+     * Returns the number of entries to scan sequentially in a source directory before its remaining subdirectories
+     * are scanned in parallel. Returns <code>0</code> if directories must be scanned on the calling thread.
+     *
+     * @return the scan fork threshold
+     * @since 3.5.2
+     */
+    default int getScanForkThreshold() {
+        return 0;
+    }
+
+    /**
+     * Specify if the entries of unfiltered archive overlays should be written straight from the archive to the webapp
+     * directory, rather than unpacking the overlays in the work directory first.
+     *
+     * @return {@code true} if overlay entries are streamed
+     * @since 3.5.2
+     */
+    default boolean isStreamOverlays() {
+        return false;
+    }
+
+    /**
+     * Returns the executor to use to unpack overlays in parallel, ahead of their merge. Returns {@code null} if each
+     * overlay is unpacked on the calling thread when it is merged.
+     *
+     * @return the unpack executor or {@code null}
+     * @since 3.5.2
+     */
+    default ExecutorService getUnpackExecutor() {
+        return null;
+    }
+
+    /**
+     * Returns the lock to hold while unpacking an overlay to the specified directory, since the overlays of the same
+     * artifact share their unpack directory. The locks are scoped to the current build. Returns {@code null} if
+     * overlays are only unpacked on the calling thread.
+     *
+     * @param unpackDirectory the unpack directory of an overlay
+     * @return the lock of the directory or {@code null}
+     * @since 3.5.2
+     */
+    default Object getUnpackLock(File unpackDirectory) {
+        return null;
+    }
 }
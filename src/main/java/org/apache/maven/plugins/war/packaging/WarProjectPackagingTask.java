@@ -26,10 +26,10 @@ import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.war.Overlay;
+import org.apache.maven.plugins.war.util.FileScanner;
 import org.apache.maven.plugins.war.util.PathSet;
 import org.apache.maven.shared.filtering.MavenFilteringException;
 import org.apache.maven.shared.utils.StringUtils;
-import org.codehaus.plexus.util.DirectoryScanner;
 
 /**
  * Handles the project own resources, that is:
@@ -88,12 +88,14 @@ public class WarProjectPackagingTask extends AbstractWarPackagingTask {
         handleWebAppSourceDirectory(context);
 
         // Debug mode: dump the path set for the current build
-        PathSet pathSet = context.getWebappStructure().getStructure("currentBuild");
-        context.getLog().debug("Dump of the current build pathSet content -->");
-        for (String path : pathSet) {
-            context.getLog().debug(path);
+        if (context.getLog().isDebugEnabled()) {
+            PathSet pathSet = context.getWebappStructure().getStructure("currentBuild");
+            context.getLog().debug("Dump of the current build pathSet content -->");
+            for (String path : pathSet) {
+                context.getLog().debug(path);
+            }
+            context.getLog().debug("-- end of dump --");
         }
-        context.getLog().debug("-- end of dump --");
 
         handleDeploymentDescriptors(context, webinfDir, metainfDir, context.isFailOnMissingWebXml());
 
@@ -151,8 +153,11 @@ public class WarProjectPackagingTask extends AbstractWarPackagingTask {
                 .equals(context.getWebappDirectory().getPath())) {
             context.getLog().info("Copying webapp resources [" + context.getWebappSourceDirectory() + "]");
             final PathSet sources = getFilesToIncludes(
-                    context.getWebappSourceDirectory(), context.getWebappSourceIncludes(),
-                    context.getWebappSourceExcludes(), context.isWebappSourceIncludeEmptyDirectories());
+                    context,
+                    context.getWebappSourceDirectory(),
+                    context.getWebappSourceIncludes(),
+                    context.getWebappSourceExcludes(),
+                    context.isWebappSourceIncludeEmptyDirectories());
 
             try {
                 copyFiles(id, context, context.getWebappSourceDirectory(), sources, false);
@@ -219,7 +224,7 @@ public class WarProjectPackagingTask extends AbstractWarPackagingTask {
                                     new File(webinfDir, "web.xml"),
                                     true,
                                     context.getFilterWrappers(),
-                                    getEncoding(webXml));
+                                    getEncoding(context, webXml));
                 } else {
                     copyFile(context, webXml, new File(webinfDir, "web.xml"), "WEB-INF/web.xml", true);
                 }
@@ -235,7 +240,7 @@ public class WarProjectPackagingTask extends AbstractWarPackagingTask {
                                     new File(webinfDir, "web.xml"),
                                     true,
                                     context.getFilterWrappers(),
-                                    getEncoding(defaultWebXml));
+                                    getEncoding(context, defaultWebXml));
                 }
             }
 
@@ -251,7 +256,7 @@ public class WarProjectPackagingTask extends AbstractWarPackagingTask {
                                     new File(metainfDir, xmlFileName),
                                     true,
                                     context.getFilterWrappers(),
-                                    getEncoding(containerConfigXML));
+                                    getEncoding(context, containerConfigXML));
                 } else {
                     copyFile(
                             context,
@@ -291,22 +296,34 @@ public class WarProjectPackagingTask extends AbstractWarPackagingTask {
         context.getLog()
                 .info("Copying webapp webResources [" + resource.getDirectory() + "] to ["
                         + context.getWebappDirectory().getAbsolutePath() + "]");
-        String[] fileNames = getFilesToCopy(resource);
-        for (String fileName : fileNames) {
-            String targetFileName = fileName;
-            if (resource.getTargetPath() != null) {
-                // TODO make sure this thing is 100% safe
-                // MWAR-129 if targetPath is only a dot <targetPath>.</targetPath> or ./
-                // and the Resource is in a part of the warSourceDirectory the file from sources will override this
-                // that's we don't have to add the targetPath yep not nice but works
-                if (!Objects.equals(".", resource.getTargetPath()) && !Objects.equals("./", resource.getTargetPath())) {
-                    targetFileName = resource.getTargetPath() + File.separator + targetFileName;
+        PathSet fileNames = getFilesToCopy(resource);
+        final CopyBatch filterBatch = resource.isFiltering() ? createFilteringBatch(context) : null;
+        try {
+            for (String fileName : fileNames) {
+                String targetFileName = fileName;
+                if (resource.getTargetPath() != null) {
+                    // TODO make sure this thing is 100% safe
+                    // MWAR-129 if targetPath is only a dot <targetPath>.</targetPath> or ./
+                    // and the Resource is in a part of the warSourceDirectory the file from sources will override
+                    // this that's we don't have to add the targetPath yep not nice but works
+                    if (!Objects.equals(".", resource.getTargetPath())
+                            && !Objects.equals("./", resource.getTargetPath())) {
+                        targetFileName = resource.getTargetPath() + File.separator + targetFileName;
+                    }
+                }
+                if (resource.isFiltering() && !context.isNonFilteredExtension(fileName)) {
+                    copyFilteredFile(
+                            id, context, new File(resource.getDirectory(), fileName), targetFileName, filterBatch);
+                } else {
+                    copyFile(id, context, new File(resource.getDirectory(), fileName), targetFileName, fileName);
                 }
             }
-            if (resource.isFiltering() && !context.isNonFilteredExtension(fileName)) {
-                copyFilteredFile(id, context, new File(resource.getDirectory(), fileName), targetFileName);
-            } else {
-                copyFile(id, context, new File(resource.getDirectory(), fileName), targetFileName, fileName);
+            if (filterBatch != null) {
+                filterBatch.await();
+            }
+        } finally {
+            if (filterBatch != null) {
+                filterBatch.cancel();
             }
         }
     }
@@ -315,26 +332,15 @@ public class WarProjectPackagingTask extends AbstractWarPackagingTask {
      * Returns a list of filenames that should be copied over to the destination directory.
      *
      * @param resource the resource to be scanned
-     * @return the array of filenames, relative to the sourceDir
+     * @return the set of filenames, relative to the sourceDir
      */
-    private String[] getFilesToCopy(Resource resource) {
-        // CHECKSTYLE_OFF: LineLength
-        DirectoryScanner scanner = new DirectoryScanner();
-        scanner.setBasedir(resource.getDirectory());
-        if (resource.getIncludes() != null && !resource.getIncludes().isEmpty()) {
-            scanner.setIncludes(resource.getIncludes().toArray(new String[0]));
-        } else {
-            scanner.setIncludes(DEFAULT_INCLUDES);
-        }
-        if (resource.getExcludes() != null && !resource.getExcludes().isEmpty()) {
-            scanner.setExcludes(resource.getExcludes().toArray(new String[0]));
-        }
-
-        scanner.addDefaultExcludes();
-
-        scanner.scan();
-
-        return scanner.getIncludedFiles();
-        // CHECKSTYLE_ON: LineLength
+    private PathSet getFilesToCopy(Resource resource) {
+        final String[] includes = resource.getIncludes() != null && !resource.getIncludes().isEmpty()
+                ? resource.getIncludes().toArray(new String[0])
+                : DEFAULT_INCLUDES;
+        final String[] excludes = resource.getExcludes() != null && !resource.getExcludes().isEmpty()
+                ? resource.getExcludes().toArray(new String[0])
+                : null;
+        return new FileScanner(includes, excludes, true).scan(new File(resource.getDirectory()));
     }
 }
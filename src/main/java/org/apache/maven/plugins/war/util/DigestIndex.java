@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * An index of the content digest of the files handled by the packaging, persisted between builds.
+ *
+ * Each entry maps the absolute path of a file to its size, its last modification time and the digest of its content.
+ * As long as the size and the last modification time of a file match its entry, the recorded digest is used instead
+ * of reading the file again. This allows to detect that a file of the webapp already holds the content of its source
+ * without relying on timestamps only.
+ *
+ * Only the entries used during the current build are persisted.
+ *
+ * @since 3.5.2
+ */
+public class DigestIndex {
+    private static final int MAGIC = 0x57415244;
+
+    private static final int VERSION = 1;
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private final IndexFile indexFile;
+
+    private final IndexFile.Entries<byte[]> entries = new IndexFile.Entries<>();
+
+    /**
+     * Creates a new empty index.
+     *
+     * @param indexFile the file the index is loaded from and saved to
+     */
+    public DigestIndex(File indexFile) {
+        this.indexFile = new IndexFile(indexFile, MAGIC, VERSION, "digest index");
+    }
+
+    /**
+     * Loads the entries persisted by a previous build, if any.
+     *
+     * @throws IOException if the index file exists but could not be read
+     */
+    public void load() throws IOException {
+        indexFile.read(in -> {
+            entries.read(in, DigestIndex::readDigest);
+            return null;
+        });
+    }
+
+    /**
+     * Saves the entries used during the current build.
+     *
+     * @throws IOException if the index could not be written
+     */
+    public void save() throws IOException {
+        indexFile.write(out -> entries.write(out, DigestIndex::writeDigest));
+    }
+
+    /**
+     * Specify if the {@code target} file exists and holds the same content as the {@code source} file.
+     *
+     * @param source the source file
+     * @param sourceAttributes the attributes of the source file
+     * @param target the target file
+     * @return true if both files have the same content
+     * @throws IOException if one of the files could not be read
+     */
+    public boolean hasSameContent(Path source, BasicFileAttributes sourceAttributes, Path target) throws IOException {
+        final BasicFileAttributes targetAttributes;
+        try {
+            targetAttributes = Files.readAttributes(target, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        if (!targetAttributes.isRegularFile() || targetAttributes.size() != sourceAttributes.size()) {
+            return false;
+        }
+        return Arrays.equals(getDigest(source, sourceAttributes), getDigest(target, targetAttributes));
+    }
+
+    /**
+     * Records that the {@code target} file has just been copied from the {@code source} file. The digest of the
+     * source is reused for the target if it is known, otherwise the target will be read again on the next check.
+     *
+     * @param source the source file
+     * @param sourceAttributes the attributes of the source file
+     * @param target the target file
+     * @throws IOException if the attributes of the target file could not be read
+     */
+    public void copied(Path source, BasicFileAttributes sourceAttributes, Path target) throws IOException {
+        final byte[] digest = entries.getCurrent(key(source), sourceAttributes);
+        if (digest != null) {
+            BasicFileAttributes targetAttributes = Files.readAttributes(target, BasicFileAttributes.class);
+            entries.put(key(target), targetAttributes, digest);
+        } else {
+            entries.remove(key(target));
+        }
+    }
+
+    private byte[] getDigest(Path file, BasicFileAttributes attributes) throws IOException {
+        return entries.get(key(file), attributes, () -> computeDigest(file));
+    }
+
+    /**
+     * Computes the digest of the content of the specified file.
+     */
+    static byte[] computeDigest(Path file) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not supported", e);
+        }
+        final byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static String key(Path file) {
+        return file.toAbsolutePath().toString();
+    }
+
+    private static byte[] readDigest(DataInputStream in) throws IOException {
+        final byte[] digest = new byte[in.readUnsignedShort()];
+        in.readFully(digest);
+        return digest;
+    }
+
+    private static void writeDigest(DataOutputStream out, byte[] digest) throws IOException {
+        out.writeShort(digest.length);
+        out.write(digest);
+    }
+}
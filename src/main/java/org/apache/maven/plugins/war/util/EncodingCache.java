@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * A cache of the encoding of XML files, optionally persisted between builds.
+ *
+ * Each entry maps the absolute path of a file to its size, its last modification time and its encoding. The encoding
+ * of a file is only detected again if its size or its last modification time changed.
+ *
+ * This class is thread-safe.
+ *
+ * @since 3.5.2
+ */
+public class EncodingCache {
+    private static final int MAGIC = 0x57415245;
+
+    private static final int VERSION = 1;
+
+    private final IndexFile indexFile;
+
+    private final IndexFile.Entries<String> entries = new IndexFile.Entries<>();
+
+    /**
+     * Creates a new empty cache.
+     *
+     * @param indexFile the file the cache is loaded from and saved to, or {@code null} to keep it in memory only
+     */
+    public EncodingCache(File indexFile) {
+        this.indexFile = indexFile != null ? new IndexFile(indexFile, MAGIC, VERSION, "encoding index") : null;
+    }
+
+    /**
+     * Loads the entries persisted by a previous build, if any.
+     *
+     * @throws IOException if the index file exists but could not be read
+     */
+    public void load() throws IOException {
+        if (indexFile != null) {
+            indexFile.read(in -> {
+                entries.read(in, DataInput::readUTF);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Saves the entries used during the current build.
+     *
+     * @throws IOException if the index could not be written
+     */
+    public void save() throws IOException {
+        if (indexFile != null) {
+            indexFile.write(out -> entries.write(out, DataOutputStream::writeUTF));
+        }
+    }
+
+    /**
+     * Returns the encoding of the specified XML file, detecting it with the specified detector only if the file
+     * changed since it was last detected.
+     *
+     * @param file the XML file
+     * @param detector detects the encoding of the file
+     * @return the encoding of the file
+     * @throws IOException if an error occurred while reading the file
+     */
+    public String getEncoding(File file, Detector detector) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        return entries.get(file.getAbsolutePath(), attributes, () -> detector.detect(file));
+    }
+
+    /**
+     * Detects the encoding of an XML file.
+     */
+    public interface Detector {
+        /**
+         * Detects the encoding of the specified XML file.
+         *
+         * @param file the XML file
+         * @return the encoding of the file
+         * @throws IOException if an error occurred while reading the file
+         */
+        String detect(File file) throws IOException;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies the content of files into the webapp.
+ *
+ * Files larger than the buffer size are copied with {@link FileChannel#transferTo(long, long,
+ * java.nio.channels.WritableByteChannel)} so that the kernel moves the bytes without exposing them to the JVM. Smaller
+ * files are copied through a direct buffer taken from a pool, which avoids allocating a stream and a heap buffer per
+ * file. The number of files and bytes copied with each strategy is recorded.
+ *
+ * The attributes of a copied file are applied with a single POSIX attribute view when available: the permissions of
+ * each file are only changed if they differ from the normalized ones.
+ *
+ * This class is thread-safe.
+ *
+ * @since 3.5.2
+ */
+public class FileCopier {
+    /**
+     * The size of the pooled buffers, files larger than that are transferred by the kernel.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong transferredFiles = new AtomicLong();
+
+    private final AtomicLong transferredBytes = new AtomicLong();
+
+    private final AtomicLong bufferedFiles = new AtomicLong();
+
+    private final AtomicLong bufferedBytes = new AtomicLong();
+
+    /**
+     * Copies the content of the {@code source} file to the {@code target} file. The parent directories of the target
+     * are created if necessary. An existing target is replaced rather than overwritten, so that the content of a file
+     * hard-linked to the target is never modified: a hard link to the local repository is never written through.
+     * Nothing is copied if the source and the target are the same file.
+     *
+     * @param source the file to copy
+     * @param target the file to create
+     * @param size the size of the source file
+     * @return {@code true} if the file has been copied, {@code false} if the source is the target itself
+     * @throws IOException if an error occurred while copying the file
+     */
+    public boolean copy(Path source, Path target, long size) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        if (Files.exists(target) && Files.isSameFile(source, target)) {
+            return false;
+        }
+        Files.deleteIfExists(target);
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            if (size > BUFFER_SIZE) {
+                long copied = transfer(in, out);
+                transferredFiles.incrementAndGet();
+                transferredBytes.addAndGet(copied);
+            } else {
+                long copied = copyThroughBuffer(in, out);
+                bufferedFiles.incrementAndGet();
+                bufferedBytes.addAndGet(copied);
+            }
+        }
+        return true;
+    }
+
+    private static long transfer(FileChannel in, FileChannel out) throws IOException {
+        final long size = in.size();
+        long position = 0;
+        while (position < size) {
+            long transferred = in.transferTo(position, size - position, out);
+            if (transferred <= 0) {
+                // the source has been truncated in the meantime
+                break;
+            }
+            position += transferred;
+        }
+        return position;
+    }
+
+    private long copyThroughBuffer(FileChannel in, FileChannel out) throws IOException {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        try {
+            long copied = 0;
+            buffer.clear();
+            while (in.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    copied += out.write(buffer);
+                }
+                buffer.clear();
+            }
+            return copied;
+        } finally {
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * Sets the last modification time of a file created by {@link #copy(Path, Path, long)} and normalizes its
+     * permissions: not executable, readable for all and writable for the owner. The permissions are only written if
+     * the ones of the file differ from the normalized ones.
+     *
+     * @param target the copied file
+     * @param lastModified the last modification time to set
+     * @return true if the attributes have been applied, false if the file system does not support POSIX attributes
+     * @throws IOException if the attributes could not be applied
+     */
+    public boolean applyAttributes(Path target, FileTime lastModified) throws IOException {
+        final PosixFileAttributeView view = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if (view == null) {
+            return false;
+        }
+        // the permissions depend on the file store and on the process creating the file, check each file
+        final Set<PosixFilePermission> permissions = normalize(view.readAttributes().permissions());
+        view.setTimes(lastModified, null, null);
+        if (!permissions.isEmpty()) {
+            view.setPermissions(permissions);
+        }
+        return true;
+    }
+
+    private static Set<PosixFilePermission> normalize(Set<PosixFilePermission> permissions) {
+        final Set<PosixFilePermission> normalized = EnumSet.noneOf(PosixFilePermission.class);
+        normalized.addAll(permissions);
+        normalized.remove(PosixFilePermission.OWNER_EXECUTE);
+        normalized.remove(PosixFilePermission.GROUP_EXECUTE);
+        normalized.remove(PosixFilePermission.OTHERS_EXECUTE);
+        normalized.add(PosixFilePermission.OWNER_READ);
+        normalized.add(PosixFilePermission.GROUP_READ);
+        normalized.add(PosixFilePermission.OTHERS_READ);
+        normalized.add(PosixFilePermission.OWNER_WRITE);
+        return normalized.equals(permissions) ? Collections.emptySet() : normalized;
+    }
+
+    /**
+     * Returns the number of files copied by the kernel.
+     *
+     * @return the number of files copied with {@code FileChannel.transferTo}
+     */
+    public long getTransferredFiles() {
+        return transferredFiles.get();
+    }
+
+    /**
+     * Returns the number of bytes copied by the kernel.
+     *
+     * @return the number of bytes copied with {@code FileChannel.transferTo}
+     */
+    public long getTransferredBytes() {
+        return transferredBytes.get();
+    }
+
+    /**
+     * Returns the number of files copied through a pooled buffer.
+     *
+     * @return the number of files copied through a buffer
+     */
+    public long getBufferedFiles() {
+        return bufferedFiles.get();
+    }
+
+    /**
+     * Returns the number of bytes copied through a pooled buffer.
+     *
+     * @return the number of bytes copied through a buffer
+     */
+    public long getBufferedBytes() {
+        return bufferedBytes.get();
+    }
+}
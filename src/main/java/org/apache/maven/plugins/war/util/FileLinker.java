@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Places files into the webapp using hard links rather than copies.
+ *
+ * Whether hard links are supported is detected once per target file store: if the very first link attempt on a file
+ * store fails, no further attempt is made on it and callers are expected to fall back to a regular copy. A linked file
+ * shares its content and attributes with its source, so callers must never modify a linked file in place.
+ *
+ * @since 3.5.2
+ */
+public class FileLinker {
+    private final Map<Path, FileStore> fileStores = new ConcurrentHashMap<>();
+
+    private final Map<FileStore, Boolean> linkSupport = new ConcurrentHashMap<>();
+
+    /**
+     * Links the {@code target} file to the {@code source} file, replacing any existing {@code target} file.
+     *
+     * @param source the existing file
+     * @param target the link to create
+     * @return {@code true} if the target is a link to the source, {@code false} if the file should be copied instead
+     * @throws IOException if the target directory could not be created or the existing target could not be removed
+     */
+    public boolean link(Path source, Path target) throws IOException {
+        final Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final FileStore fileStore = getFileStore(directory);
+        final Boolean supported = linkSupport.get(fileStore);
+        if (Boolean.FALSE.equals(supported)) {
+            return false;
+        }
+
+        final Path realSource = source.toRealPath();
+        if (Files.isRegularFile(target) && Files.isSameFile(realSource, target)) {
+            return true;
+        }
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, realSource);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            if (supported == null) {
+                linkSupport.put(fileStore, Boolean.FALSE);
+            }
+            return false;
+        }
+        linkSupport.put(fileStore, Boolean.TRUE);
+        return true;
+    }
+
+    private FileStore getFileStore(Path directory) throws IOException {
+        FileStore fileStore = fileStores.get(directory);
+        if (fileStore == null) {
+            fileStore = Files.getFileStore(directory);
+            fileStores.put(directory, fileStore);
+        }
+        return fileStore;
+    }
+}
@@ -0,0 +1,486 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codehaus.plexus.util.AbstractScanner;
+
+/**
+ * Scans a directory for the files and directories matching a set of include and exclude patterns, with the same
+ * semantics as the plexus {@code DirectoryScanner}.
+ *
+ * The patterns are compiled once when the scanner is created and each path is split into its segments once, while
+ * walking the directory tree. A directory is not walked if no include pattern can match its content, or if an exclude
+ * pattern ending with <code>**</code> excludes all its content. The matching paths are added directly to a
+ * {@link PathSet}.
+ *
+ * Very large trees can be scanned in parallel, see {@link #setForkThreshold(int)}.
+ *
+ * @since 3.5.2
+ */
+public class FileScanner {
+    private final PathPattern[] includes;
+
+    private final PathPattern[] excludes;
+
+    /**
+     * The exclude patterns excluding a directory and all its content, without their trailing <code>**</code>.
+     */
+    private final PathPattern[] excludedTrees;
+
+    private final boolean hasRegexPattern;
+
+    private int forkThreshold;
+
+    /**
+     * Creates a scanner. If no include pattern is specified, everything is included.
+     *
+     * @param includes the include patterns, may be {@code null}
+     * @param excludes the exclude patterns, may be {@code null}
+     * @param addDefaultExcludes whether the default excludes of the plexus {@code DirectoryScanner} (version control
+     *            metadata, editor backups, ...) should be added to the exclude patterns
+     */
+    public FileScanner(String[] includes, String[] excludes, boolean addDefaultExcludes) {
+        final List<String> excludePatterns = new ArrayList<>();
+        if (excludes != null) {
+            for (String exclude : excludes) {
+                excludePatterns.add(exclude);
+            }
+        }
+        if (addDefaultExcludes) {
+            for (String exclude : AbstractScanner.DEFAULTEXCLUDES) {
+                excludePatterns.add(exclude);
+            }
+        }
+        this.includes =
+                compile(includes == null || includes.length == 0 ? new String[] {PathPattern.DEEP_TREE} : includes);
+        this.excludes = compile(excludePatterns.toArray(new String[0]));
+
+        final List<PathPattern> trees = new ArrayList<>();
+        boolean regex = false;
+        for (PathPattern pattern : this.includes) {
+            regex |= pattern.isRegex();
+        }
+        for (PathPattern pattern : this.excludes) {
+            regex |= pattern.isRegex();
+            if (!pattern.isRegex() && pattern.endsWithDeepTree()) {
+                trees.add(pattern.withoutTrailingDeepTrees());
+            }
+        }
+        this.excludedTrees = trees.toArray(new PathPattern[0]);
+        this.hasRegexPattern = regex;
+    }
+
+    /**
+     * Sets the number of entries to scan on the calling thread before the remaining subdirectories are scanned in
+     * parallel, as fork/join tasks of the common pool. The paths are added in the same order whether or not the scan
+     * is parallel.
+     *
+     * @param forkThreshold the number of entries to scan before forking, or 0 to always scan on the calling thread
+     */
+    public void setForkThreshold(int forkThreshold) {
+        this.forkThreshold = forkThreshold;
+    }
+
+    /**
+     * Scans the specified directory for the matching files.
+     *
+     * @param basedir the directory to scan
+     * @return the relative paths of the matching files
+     * @throws IllegalStateException if the directory does not exist or is not a directory
+     */
+    public PathSet scan(File basedir) {
+        final PathSet files = new PathSet();
+        scan(basedir, files, null);
+        return files;
+    }
+
+    /**
+     * Scans the specified directory for the matching files and directories.
+     *
+     * @param basedir the directory to scan
+     * @param files the set to add the relative paths of the matching files to
+     * @param directories the set to add the relative paths of the matching directories to, or {@code null} to
+     *            ignore directories
+     * @throws IllegalStateException if the directory does not exist or is not a directory
+     */
+    public void scan(File basedir, final PathSet files, final PathSet directories) {
+        if (!basedir.exists()) {
+            throw new IllegalStateException("basedir " + basedir + " does not exist");
+        }
+        if (!basedir.isDirectory()) {
+            throw new IllegalStateException("basedir " + basedir + " is not a directory");
+        }
+        final Path root = basedir.toPath();
+        if (forkThreshold > 0) {
+            scanInParallel(root, files, directories);
+            return;
+        }
+        final List<String> segments = new ArrayList<>();
+        final List<String> relativePaths = new ArrayList<>();
+        try {
+            Files.walkFileTree(
+                    root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                            final String relativePath;
+                            if (relativePaths.isEmpty()) {
+                                relativePath = "";
+                            } else {
+                                segments.add(dir.getFileName().toString());
+                                relativePath = relativePath(relativePaths, dir.getFileName().toString());
+                            }
+                            if (directories != null && isIncluded(segments, relativePath)) {
+                                directories.addNormalized(relativePath);
+                            }
+                            if (!couldHoldIncluded(segments) || isExcludedTree(segments)) {
+                                if (!relativePaths.isEmpty()) {
+                                    segments.remove(segments.size() - 1);
+                                }
+                                return FileVisitResult.SKIP_SUBTREE;
+                            }
+                            relativePaths.add(relativePath);
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                            relativePaths.remove(relativePaths.size() - 1);
+                            if (!relativePaths.isEmpty()) {
+                                segments.remove(segments.size() - 1);
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                            if (attrs.isRegularFile()) {
+                                final String name = file.getFileName().toString();
+                                segments.add(name);
+                                final String relativePath = relativePath(relativePaths, name);
+                                if (isIncluded(segments, relativePath)) {
+                                    files.addNormalized(relativePath);
+                                }
+                                segments.remove(segments.size() - 1);
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                            // unreadable entries and symbolic link loops are ignored, as the DirectoryScanner does
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+        } catch (IOException e) {
+            // never thrown since failures are ignored
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Tells whether the file at the specified relative path would be found by a scan, without accessing the file
+     * system. This allows filtering the entries of an archive as if it were extracted and scanned.
+     *
+     * @param relativePath the relative path of the file, with '/' or '\' separators
+     * @return {@code true} if a scan would include the file
+     */
+    public boolean isIncluded(String relativePath) {
+        final String normalizedPath = PathSet.normalizeSubPath(relativePath);
+        if (normalizedPath.isEmpty()) {
+            return false;
+        }
+        final List<String> segments = new ArrayList<>();
+        int start = 0;
+        for (int end = normalizedPath.indexOf('/'); end >= 0; end = normalizedPath.indexOf('/', start)) {
+            if (!couldHoldIncluded(segments) || isExcludedTree(segments)) {
+                return false;
+            }
+            segments.add(normalizedPath.substring(start, end));
+            start = end + 1;
+        }
+        if (!couldHoldIncluded(segments) || isExcludedTree(segments)) {
+            return false;
+        }
+        segments.add(normalizedPath.substring(start));
+        return isIncluded(segments, normalizedPath);
+    }
+
+    private void scanInParallel(Path root, PathSet files, PathSet directories) {
+        final List<String> segments = new ArrayList<>();
+        if (directories != null && isIncluded(segments, "")) {
+            directories.addNormalized("");
+        }
+        if (!couldHoldIncluded(segments) || isExcludedTree(segments)) {
+            return;
+        }
+        Object rootKey;
+        try {
+            rootKey = Files.readAttributes(root, BasicFileAttributes.class).fileKey();
+        } catch (IOException e) {
+            rootKey = null;
+        }
+        final Ancestor rootAncestor = new Ancestor(root, rootKey, null);
+        final ScanTask task =
+                new ScanTask(root, "", segments, rootAncestor, directories != null, new AtomicInteger());
+        ForkJoinPool.commonPool().invoke(task);
+        for (String file : task.files) {
+            files.addNormalized(file);
+        }
+        if (directories != null) {
+            for (String directory : task.directories) {
+                directories.addNormalized(directory);
+            }
+        }
+    }
+
+    private static String relativePath(List<String> relativePaths, String name) {
+        final String parent = relativePaths.get(relativePaths.size() - 1);
+        return parent.isEmpty() ? name : parent + '/' + name;
+    }
+
+    private boolean isIncluded(List<String> segments, String relativePath) {
+        final String nativePath = hasRegexPattern ? relativePath.replace('/', File.separatorChar) : null;
+        return matchesAny(includes, segments, nativePath) && !matchesAny(excludes, segments, nativePath);
+    }
+
+    private boolean couldHoldIncluded(List<String> segments) {
+        for (PathPattern include : includes) {
+            if (include.matchesStart(segments)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isExcludedTree(List<String> segments) {
+        for (PathPattern tree : excludedTrees) {
+            if (tree.matches(segments, null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesAny(PathPattern[] patterns, List<String> segments, String nativePath) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(segments, nativePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static PathPattern[] compile(String[] patterns) {
+        final PathPattern[] compiled = new PathPattern[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            compiled[i] = PathPattern.compile(patterns[i], true);
+        }
+        return compiled;
+    }
+
+    /**
+     * A directory being scanned and its parents, to detect symbolic link loops. As {@link Files#walkFileTree} does,
+     * directories are compared by file key, or with {@link Files#isSameFile(Path, Path)} if the file system does not
+     * provide file keys.
+     */
+    static final class Ancestor {
+        private final Path directory;
+
+        private final Object key;
+
+        private final Ancestor parent;
+
+        Ancestor(Path directory, Object key, Ancestor parent) {
+            this.directory = directory;
+            this.key = key;
+            this.parent = parent;
+        }
+
+        boolean contains(Path dir, Object dirKey) {
+            for (Ancestor ancestor = this; ancestor != null; ancestor = ancestor.parent) {
+                if (dirKey != null && ancestor.key != null) {
+                    if (dirKey.equals(ancestor.key)) {
+                        return true;
+                    }
+                } else if (isSameFile(dir, ancestor.directory)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isSameFile(Path dir, Path ancestor) {
+            try {
+                return Files.isSameFile(dir, ancestor);
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Scans a directory in depth-first order, as {@link Files#walkFileTree} does. Once enough entries have been
+     * scanned, its subdirectories are scanned by forked tasks, whose paths are merged back in order.
+     */
+    private final class ScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+
+        private final String relativePath;
+
+        private final List<String> segments;
+
+        private final Ancestor ancestors;
+
+        private final boolean collectDirectories;
+
+        private final AtomicInteger scannedEntries;
+
+        private final List<String> files = new ArrayList<>();
+
+        private final List<String> directories = new ArrayList<>();
+
+        private final List<Fork> forks = new ArrayList<>();
+
+        ScanTask(
+                Path directory,
+                String relativePath,
+                List<String> segments,
+                Ancestor ancestors,
+                boolean collectDirectories,
+                AtomicInteger scannedEntries) {
+            this.directory = directory;
+            this.relativePath = relativePath;
+            this.segments = segments;
+            this.ancestors = ancestors;
+            this.collectDirectories = collectDirectories;
+            this.scannedEntries = scannedEntries;
+        }
+
+        @Override
+        protected void compute() {
+            scanDirectory(directory, relativePath, ancestors);
+            if (forks.isEmpty()) {
+                return;
+            }
+            final List<String> mergedFiles = new ArrayList<>();
+            final List<String> mergedDirectories = new ArrayList<>();
+            int fileIndex = 0;
+            int directoryIndex = 0;
+            for (Fork fork : forks) {
+                fork.task.join();
+                mergedFiles.addAll(files.subList(fileIndex, fork.fileIndex));
+                mergedFiles.addAll(fork.task.files);
+                mergedDirectories.addAll(directories.subList(directoryIndex, fork.directoryIndex));
+                mergedDirectories.addAll(fork.task.directories);
+                fileIndex = fork.fileIndex;
+                directoryIndex = fork.directoryIndex;
+            }
+            mergedFiles.addAll(files.subList(fileIndex, files.size()));
+            mergedDirectories.addAll(directories.subList(directoryIndex, directories.size()));
+            files.clear();
+            files.addAll(mergedFiles);
+            directories.clear();
+            directories.addAll(mergedDirectories);
+        }
+
+        private void scanDirectory(Path dir, String dirPath, Ancestor dirAncestors) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) {
+                    scannedEntries.incrementAndGet();
+                    final BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+                    } catch (IOException e) {
+                        // broken symbolic links and unreadable entries are ignored
+                        continue;
+                    }
+                    final String name = entry.getFileName().toString();
+                    final String path = dirPath.isEmpty() ? name : dirPath + '/' + name;
+                    segments.add(name);
+                    if (attrs.isDirectory()) {
+                        scanSubdirectory(entry, path, attrs.fileKey(), dirAncestors);
+                    } else if (attrs.isRegularFile() && isIncluded(segments, path)) {
+                        files.add(path);
+                    }
+                    segments.remove(segments.size() - 1);
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                // unreadable directories are ignored, as the DirectoryScanner does
+            }
+        }
+
+        private void scanSubdirectory(Path dir, String dirPath, Object key, Ancestor parentAncestors) {
+            if (parentAncestors.contains(dir, key)) {
+                // symbolic link loop
+                return;
+            }
+            if (collectDirectories && isIncluded(segments, dirPath)) {
+                directories.add(dirPath);
+            }
+            if (!couldHoldIncluded(segments) || isExcludedTree(segments)) {
+                return;
+            }
+            final Ancestor dirAncestors = new Ancestor(dir, key, parentAncestors);
+            if (scannedEntries.get() < forkThreshold) {
+                scanDirectory(dir, dirPath, dirAncestors);
+            } else {
+                final ScanTask task = new ScanTask(
+                        dir, dirPath, new ArrayList<>(segments), dirAncestors, collectDirectories, scannedEntries);
+                forks.add(new Fork(task, files.size(), directories.size()));
+                task.fork();
+            }
+        }
+    }
+
+    /**
+     * A forked task, with the number of paths found by its parent before it.
+     */
+    private static final class Fork {
+        private final ScanTask task;
+
+        private final int fileIndex;
+
+        private final int directoryIndex;
+
+        Fork(ScanTask task, int fileIndex, int directoryIndex) {
+            this.task = task;
+            this.fileIndex = fileIndex;
+            this.directoryIndex = directoryIndex;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.shared.filtering.FilterWrapper;
+
+/**
+ * A cache of the output of filtered files, persisted between builds.
+ *
+ * The expressions referenced by each filtered file are recorded, along with the size, timestamp and digest of the
+ * file, in an index persisted next to the other indexes of the packaging. The cache directory only holds the filtered
+ * outputs, so that it can be pruned without any exception. An entry is keyed by the digest of the content of the
+ * source file, the encoding used to filter it, a digest of the filter settings (delimiters, escape string, ...)
+ * computed once per build with a {@link Key}, and the value each referenced expression resolves to with the filter
+ * wrappers of the caller, the ones of the filtering thread when files are filtered in parallel. Changing a property
+ * therefore only invalidates the files that reference it. If an entry exists, filtering the source again would produce
+ * the same output, so the entry can simply be copied to the webapp. Files that do not reference any expression are
+ * copied as is.
+ *
+ * Entries that are not used during a build are removed by {@link #prune()}.
+ *
+ * This class is thread-safe.
+ *
+ * @since 3.5.2
+ */
+public class FilteredFileCache {
+    private static final int MAGIC = 0x57415246;
+
+    private static final int VERSION = 2;
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final File cacheDirectory;
+
+    private final IndexFile indexFile;
+
+    private final String filterDigest;
+
+    private final List<String[]> delimiters = new ArrayList<>();
+
+    private final boolean supportMultiLineFiltering;
+
+    private final IndexFile.Entries<Source> sources = new IndexFile.Entries<>();
+
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+
+    private final Set<String> usedEntries = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param cacheDirectory the directory holding the entries
+     * @param indexFile the file the expressions of the filtered files are loaded from and saved to
+     * @param filterDigest the digest of the filter settings of the current build
+     * @param delimiters the expression delimiters, such as <code>${*}</code> or <code>@</code>
+     * @param supportMultiLineFiltering whether an expression may span several lines
+     */
+    public FilteredFileCache(
+            File cacheDirectory,
+            File indexFile,
+            String filterDigest,
+            Collection<String> delimiters,
+            boolean supportMultiLineFiltering) {
+        this.cacheDirectory = cacheDirectory;
+        this.indexFile = new IndexFile(indexFile, MAGIC, VERSION, "filtered file index");
+        this.filterDigest = filterDigest;
+        for (String delimiter : delimiters) {
+            final int index = delimiter.indexOf('*');
+            if (index >= 0) {
+                this.delimiters.add(new String[] {delimiter.substring(0, index), delimiter.substring(index + 1)});
+            } else {
+                this.delimiters.add(new String[] {delimiter, delimiter});
+            }
+        }
+        this.supportMultiLineFiltering = supportMultiLineFiltering;
+    }
+
+    /**
+     * Loads the expressions recorded by a previous build with the same filter settings, if any.
+     *
+     * @throws IOException if the index exists but could not be read
+     */
+    public void load() throws IOException {
+        indexFile.read(in -> {
+            // expressions found with other delimiters are ignored
+            if (filterDigest.equals(in.readUTF())) {
+                sources.read(in, FilteredFileCache::readSource);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Saves the expressions of the files filtered during the current build.
+     *
+     * @throws IOException if the index could not be written
+     */
+    public void save() throws IOException {
+        indexFile.write(out -> {
+            out.writeUTF(filterDigest);
+            sources.write(out, FilteredFileCache::writeSource);
+        });
+    }
+
+    /**
+     * Returns the entry holding the output of filtering the specified source with the specified encoding. The
+     * returned file does not exist if the output has not been {@link #store(File, File) stored} yet. If the source
+     * does not reference any expression, the source itself is returned since filtering would not change it.
+     *
+     * @param source the file to filter
+     * @param encoding the encoding used to filter the file, may be {@code null}
+     * @param filterWrappers the filter wrappers used to filter the file, and to resolve the expressions
+     * @return the entry of the filtered output, or the source
+     * @throws IOException if the source could not be read or an expression could not be resolved
+     */
+    public File getEntry(File source, String encoding, List<FilterWrapper> filterWrappers) throws IOException {
+        final String charsetName = String.valueOf(encoding);
+        final Source recorded = getSource(source.toPath(), charsetName);
+        if (recorded.expressions.length == 0) {
+            return source;
+        }
+        final MessageDigest digest = newDigest();
+        update(digest, filterDigest);
+        update(digest, charsetName);
+        update(digest, recorded.digest);
+        for (String expression : recorded.expressions) {
+            update(digest, expression);
+            update(digest, resolve(expression, filterWrappers));
+        }
+        final String name = toHex(digest.digest());
+        usedEntries.add(name);
+        return new File(cacheDirectory, name);
+    }
+
+    /**
+     * Stores the specified filtered output as the content of the specified entry.
+     *
+     * @param filteredFile the output of the filtering
+     * @param entry the entry returned by {@link #getEntry(File, String, List)}
+     * @throws IOException if the entry could not be written
+     */
+    public void store(File filteredFile, File entry) throws IOException {
+        Files.createDirectories(cacheDirectory.toPath());
+        final Path tmpFile = Files.createTempFile(cacheDirectory.toPath(), entry.getName(), ".tmp");
+        try {
+            Files.copy(filteredFile.toPath(), tmpFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmpFile, entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    /**
+     * Removes the entries that have not been used during the current build.
+     *
+     * @throws IOException if an entry could not be removed
+     */
+    public void prune() throws IOException {
+        if (!cacheDirectory.isDirectory()) {
+            return;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(cacheDirectory.toPath())) {
+            for (Path entry : entries) {
+                final String name = entry.getFileName().toString();
+                if (!usedEntries.contains(name)) {
+                    Files.deleteIfExists(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the recorded digest and expressions of the specified source read with the specified encoding, reading it
+     * again only if it changed. A file read with several encodings has an entry for each of them.
+     */
+    private Source getSource(Path file, String encoding) throws IOException {
+        final String key = file.toAbsolutePath() + "\0" + encoding;
+        final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return sources.get(key, attributes, () -> {
+            final byte[] content = Files.readAllBytes(file);
+            final Charset charset = "null".equals(encoding) ? Charset.defaultCharset() : Charset.forName(encoding);
+            return new Source(toHex(newDigest().digest(content)), findExpressions(new String(content, charset)));
+        });
+    }
+
+    /**
+     * Finds the expressions referenced by the specified text, including their delimiters. An expression that is
+     * escaped or that is never resolved is recorded as well, its value is then the expression itself.
+     */
+    private String[] findExpressions(String text) {
+        final Set<String> expressions = new TreeSet<>();
+        for (String[] delimiter : delimiters) {
+            final String begin = delimiter[0];
+            final String end = delimiter[1];
+            int start = text.indexOf(begin);
+            while (start >= 0) {
+                final int stop = text.indexOf(end, start + begin.length());
+                if (stop < 0) {
+                    break;
+                }
+                final String expression = text.substring(start, stop + end.length());
+                if (supportMultiLineFiltering || expression.indexOf('\n') < 0 && expression.indexOf('\r') < 0) {
+                    expressions.add(expression);
+                    start = text.indexOf(begin, stop + end.length());
+                } else {
+                    start = text.indexOf(begin, start + begin.length());
+                }
+            }
+        }
+        return expressions.toArray(new String[0]);
+    }
+
+    /**
+     * Resolves the specified expression with the filter wrappers, as if it was the content of a filtered file.
+     */
+    private String resolve(String expression, List<FilterWrapper> filterWrappers) throws IOException {
+        String value = values.get(expression);
+        if (value == null) {
+            Reader reader = new StringReader(expression);
+            for (FilterWrapper wrapper : filterWrappers) {
+                reader = wrapper.getReader(reader);
+            }
+            final StringBuilder builder = new StringBuilder();
+            final char[] buffer = new char[256];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                builder.append(buffer, 0, read);
+            }
+            value = builder.toString();
+            values.put(expression, value);
+        }
+        return value;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not supported", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    private static Source readSource(DataInputStream in) throws IOException {
+        final String digest = in.readUTF();
+        final String[] expressions = new String[in.readInt()];
+        for (int i = 0; i < expressions.length; i++) {
+            expressions[i] = in.readUTF();
+        }
+        return new Source(digest, expressions);
+    }
+
+    private static void writeSource(DataOutputStream out, Source source) throws IOException {
+        out.writeUTF(source.digest);
+        out.writeInt(source.expressions.length);
+        for (String expression : source.expressions) {
+            out.writeUTF(expression);
+        }
+    }
+
+    private static final class Source {
+        private final String digest;
+
+        private final String[] expressions;
+
+        Source(String digest, String[] expressions) {
+            this.digest = digest;
+            this.expressions = expressions;
+        }
+    }
+
+    /**
+     * Computes the digest of the settings of the filtering.
+     */
+    public static class Key {
+        private final MessageDigest digest = newDigest();
+
+        /**
+         * Adds a named value to the key.
+         *
+         * @param name the name of the value
+         * @param value the value, may be {@code null}
+         * @return this key
+         */
+        public Key add(String name, Object value) {
+            update(digest, name);
+            update(digest, String.valueOf(value));
+            return this;
+        }
+
+        /**
+         * Returns the digest of the settings added so far.
+         *
+         * @return the hexadecimal digest
+         */
+        public String toDigest() {
+            return toHex(digest.digest());
+        }
+    }
+}
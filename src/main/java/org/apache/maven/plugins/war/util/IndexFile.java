@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A binary file persisting the state of the packaging between builds.
+ *
+ * The file starts with a magic number and a version: a file with another header is rejected. It is written to a
+ * temporary file which then replaces the previous one, so that an interrupted build never leaves a truncated file.
+ *
+ * @since 3.5.2
+ */
+final class IndexFile {
+    private final File file;
+
+    private final int magic;
+
+    private final int version;
+
+    private final String description;
+
+    /**
+     * Creates an index file.
+     *
+     * @param file the file
+     * @param magic the magic number the file starts with
+     * @param version the version of the format of the file
+     * @param description the description of the file in error messages
+     */
+    IndexFile(File file, int magic, int version, String description) {
+        this.file = file;
+        this.magic = magic;
+        this.version = version;
+        this.description = description;
+    }
+
+    /**
+     * Reads the content of the file, if it exists.
+     *
+     * @param reader reads the content following the header
+     * @param <T> the type of the content
+     * @return the content returned by the reader, or {@code null} if the file does not exist
+     * @throws IOException if the file exists but could not be read, or has another header
+     */
+    <T> T read(ContentReader<T> reader) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != magic || in.readInt() != version) {
+                throw new IOException("Unsupported " + description + " format " + file);
+            }
+            return reader.read(in);
+        }
+    }
+
+    /**
+     * Writes the file. The parent directories are created if necessary, and the file is replaced once fully written.
+     *
+     * @param writer writes the content following the header
+     * @throws IOException if the file could not be written
+     */
+    void write(ContentWriter writer) throws IOException {
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        final Path tmpFile = new File(file.getPath() + ".tmp").toPath();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+            out.writeInt(magic);
+            out.writeInt(version);
+            writer.write(out);
+        }
+        Files.move(tmpFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads the content of an index file.
+     *
+     * @param <T> the type of the content
+     */
+    interface ContentReader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    /**
+     * Writes the content of an index file.
+     */
+    interface ContentWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Reads the value of an entry.
+     *
+     * @param <V> the type of the value
+     */
+    interface ValueReader<V> {
+        V read(DataInputStream in) throws IOException;
+    }
+
+    /**
+     * Writes the value of an entry.
+     *
+     * @param <V> the type of the value
+     */
+    interface ValueWriter<V> {
+        void write(DataOutputStream out, V value) throws IOException;
+    }
+
+    /**
+     * Computes the value of an entry from the content of its file.
+     *
+     * @param <V> the type of the value
+     */
+    interface ValueLoader<V> {
+        V load() throws IOException;
+    }
+
+    /**
+     * The entries of an index, each holding a value computed from the content of a file. A value is reused as long
+     * as the size and the last modification time of the file match the ones it was computed with. The entries of the
+     * previous build are read from the index file, and only the entries used during the current build are written.
+     *
+     * This class is thread-safe.
+     *
+     * @param <V> the type of the values
+     */
+    static final class Entries<V> {
+        private final Map<String, Entry<V>> previousEntries = new ConcurrentHashMap<>();
+
+        private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+
+        /**
+         * Returns the value of the specified entry, computing it again only if the file changed.
+         *
+         * @param key the key of the entry
+         * @param attributes the current attributes of the file
+         * @param loader computes the value if the file changed
+         * @return the value
+         * @throws IOException if the value could not be computed
+         */
+        V get(String key, BasicFileAttributes attributes, ValueLoader<V> loader) throws IOException {
+            Entry<V> entry = entries.get(key);
+            if (entry == null || !entry.matches(attributes)) {
+                entry = previousEntries.get(key);
+            }
+            if (entry == null || !entry.matches(attributes)) {
+                entry = new Entry<>(attributes.size(), attributes.lastModifiedTime().toMillis(), loader.load());
+            }
+            entries.put(key, entry);
+            return entry.value;
+        }
+
+        /**
+         * Returns the value of the specified entry if it has been used during the current build and the file did not
+         * change since.
+         *
+         * @param key the key of the entry
+         * @param attributes the current attributes of the file
+         * @return the value, or {@code null}
+         */
+        V getCurrent(String key, BasicFileAttributes attributes) {
+            final Entry<V> entry = entries.get(key);
+            return entry != null && entry.matches(attributes) ? entry.value : null;
+        }
+
+        /**
+         * Records the value of the specified entry.
+         *
+         * @param key the key of the entry
+         * @param attributes the current attributes of the file
+         * @param value the value
+         */
+        void put(String key, BasicFileAttributes attributes, V value) {
+            entries.put(key, new Entry<>(attributes.size(), attributes.lastModifiedTime().toMillis(), value));
+        }
+
+        /**
+         * Removes the specified entry of the current build.
+         *
+         * @param key the key of the entry
+         */
+        void remove(String key) {
+            entries.remove(key);
+        }
+
+        /**
+         * Reads the entries of the previous build.
+         *
+         * @param in the content of the index file
+         * @param reader reads the value of an entry
+         * @throws IOException if the entries could not be read
+         */
+        void read(DataInputStream in, ValueReader<V> reader) throws IOException {
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final String key = in.readUTF();
+                final long size = in.readLong();
+                final long lastModified = in.readLong();
+                previousEntries.put(key, new Entry<>(size, lastModified, reader.read(in)));
+            }
+        }
+
+        /**
+         * Writes the entries used during the current build.
+         *
+         * @param out the content of the index file
+         * @param writer writes the value of an entry
+         * @throws IOException if the entries could not be written
+         */
+        void write(DataOutputStream out, ValueWriter<V> writer) throws IOException {
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry<V>> entry : entries.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().size);
+                out.writeLong(entry.getValue().lastModified);
+                writer.write(out, entry.getValue().value);
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        private final long size;
+
+        private final long lastModified;
+
+        private final V value;
+
+        Entry(long size, long lastModified, V value) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.value = value;
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size()
+                    && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+}
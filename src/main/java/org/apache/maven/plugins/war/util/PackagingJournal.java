@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The journal of the paths produced in a webapp directory, persisted between builds.
+ *
+ * The paths produced by the previous build in the same webapp directory are loaded, and the paths produced by the
+ * current build are recorded. The outdated paths, that is the ones the previous build produced but the current one
+ * did not, are the difference of both sets: neither a walk of the webapp directory nor timestamps are needed to find
+ * them. Without a journal of the previous build, the paths it produced can be recorded from another source with
+ * {@link #addPreviousPath(String)}.
+ *
+ * This class is thread-safe.
+ *
+ * @since 3.5.2
+ */
+public class PackagingJournal {
+    private static final int MAGIC = 0x5741524a;
+
+    private static final int VERSION = 1;
+
+    private final IndexFile journalFile;
+
+    private final String webappDirectory;
+
+    private final PathSet previousPaths = new PathSet();
+
+    private final PathSet paths = new PathSet();
+
+    /**
+     * Creates a new empty journal.
+     *
+     * @param journalFile the file the journal is loaded from and saved to
+     * @param webappDirectory the webapp directory the paths are relative to
+     */
+    public PackagingJournal(File journalFile, File webappDirectory) {
+        this.journalFile = new IndexFile(journalFile, MAGIC, VERSION, "packaging journal");
+        this.webappDirectory = webappDirectory.getAbsolutePath();
+    }
+
+    /**
+     * Loads the paths produced by the previous build, if any. A journal of another webapp directory is ignored.
+     *
+     * @return {@code true} if the journal of a previous build in the same webapp directory has been loaded
+     * @throws IOException if the journal file exists but could not be read
+     */
+    public boolean load() throws IOException {
+        final Boolean loaded = journalFile.read(in -> {
+            if (!webappDirectory.equals(in.readUTF())) {
+                return false;
+            }
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                previousPaths.addNormalized(in.readUTF());
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(loaded);
+    }
+
+    /**
+     * Saves the paths produced by the current build.
+     *
+     * @throws IOException if the journal could not be written
+     */
+    public synchronized void save() throws IOException {
+        journalFile.write(out -> {
+            out.writeUTF(webappDirectory);
+            out.writeInt(paths.size());
+            for (String path : paths) {
+                out.writeUTF(path);
+            }
+        });
+    }
+
+    /**
+     * Records that the previous build produced the specified path, when no journal of the previous build is available.
+     *
+     * @param path the path, relative to the webapp directory
+     */
+    public synchronized void addPreviousPath(String path) {
+        previousPaths.add(path);
+    }
+
+    /**
+     * Records that the current build produced the specified path.
+     *
+     * @param path the path, relative to the webapp directory
+     */
+    public synchronized void add(String path) {
+        paths.add(path);
+    }
+
+    /**
+     * Returns the paths produced by the previous build that the current build did not produce so far.
+     *
+     * @return the outdated paths, relative to the webapp directory
+     */
+    public synchronized PathSet getOutdatedPaths() {
+        final PathSet outdatedPaths = new PathSet();
+        for (String path : previousPaths) {
+            if (!paths.contains(path)) {
+                outdatedPaths.addNormalized(path);
+            }
+        }
+        return outdatedPaths;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The packaging includes and excludes, compiled once per build.
+ *
+ * A path is excluded if it matches one of the excludes, or none of the includes, with the semantics of
+ * {@code SelectorUtils.matchPath}: both <code>/</code> and <code>\</code> separate the segments of the paths. The
+ * patterns are trimmed and split into their segments once, and each path is only split once whatever the number of
+ * patterns.
+ *
+ * This class is immutable and thus thread-safe.
+ *
+ * @since 3.5.2
+ */
+public class PackagingMatcher {
+    private final List<String> includes;
+
+    private final List<String> excludes;
+
+    private final PathPattern[] includePatterns;
+
+    private final PathPattern[] excludePatterns;
+
+    /**
+     * Creates a matcher.
+     *
+     * @param includes the packaging includes
+     * @param excludes the packaging excludes
+     */
+    public PackagingMatcher(String[] includes, String[] excludes) {
+        this.includes = trim(includes);
+        this.excludes = trim(excludes);
+        this.includePatterns = compile(this.includes);
+        this.excludePatterns = compile(this.excludes);
+    }
+
+    /**
+     * Returns the trimmed packaging includes.
+     *
+     * @return the packaging includes
+     */
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    /**
+     * Returns the trimmed packaging excludes.
+     *
+     * @return the packaging excludes
+     */
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    /**
+     * Check whether the specified file is excluded or not.
+     *
+     * @param path the path of the file, relative to the webapp directory
+     * @return true if the file is excluded
+     */
+    public boolean isExcluded(String path) {
+        final List<String> segments = split(path);
+        final boolean absolute = !path.isEmpty() && isSeparator(path.charAt(0));
+        for (PathPattern exclude : excludePatterns) {
+            if (matches(exclude, segments, absolute, path)) {
+                return true;
+            }
+        }
+        for (PathPattern include : includePatterns) {
+            if (matches(include, segments, absolute, path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(PathPattern pattern, List<String> segments, boolean absolute, String path) {
+        // an ant pattern and a path must both start with a separator, or both not
+        return (pattern.isRegex() || pattern.isAbsolute() == absolute) && pattern.matches(segments, path);
+    }
+
+    private static List<String> split(String path) {
+        final List<String> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || isSeparator(path.charAt(i))) {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '/' || c == '\\';
+    }
+
+    private static List<String> trim(String[] patterns) {
+        if (patterns == null) {
+            return Collections.emptyList();
+        }
+        final String[] trimmed = new String[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            trimmed[i] = patterns[i].trim();
+        }
+        return Collections.unmodifiableList(Arrays.asList(trimmed));
+    }
+
+    private static PathPattern[] compile(List<String> patterns) {
+        final PathPattern[] compiled = new PathPattern[patterns.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = PathPattern.compile(patterns.get(i), false);
+        }
+        return compiled;
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringTokenizer;
+import java.util.regex.Pattern;
+
+/**
+ * An include or exclude pattern, either a regular expression or an ant pattern split into its segments, compiled once
+ * to be matched against many paths with the semantics of the plexus {@code SelectorUtils}.
+ *
+ * This class is immutable and thus thread-safe.
+ *
+ * @since 3.5.2
+ */
+final class PathPattern {
+    static final String DEEP_TREE = "**";
+
+    private static final String REGEX_PREFIX = "%regex[";
+
+    private static final String ANT_PREFIX = "%ant[";
+
+    private static final String PATTERN_SUFFIX = "]";
+
+    private final Pattern regex;
+
+    private final boolean absolute;
+
+    private final Segment[] segments;
+
+    private PathPattern(Pattern regex, boolean absolute, Segment[] segments) {
+        this.regex = regex;
+        this.absolute = absolute;
+        this.segments = segments;
+    }
+
+    /**
+     * Compiles the specified pattern. Both <code>/</code> and <code>\</code> separate the segments of an ant pattern.
+     *
+     * @param pattern the pattern, an ant pattern or a regular expression in <code>%regex[]</code>
+     * @param trailingDeepTree whether a trailing separator stands for <code>**</code>, as it does for the
+     *            {@code DirectoryScanner}
+     * @return the compiled pattern
+     */
+    static PathPattern compile(String pattern, boolean trailingDeepTree) {
+        String normalized = pattern.trim();
+        if (normalized.length() > REGEX_PREFIX.length() + PATTERN_SUFFIX.length()
+                && normalized.startsWith(REGEX_PREFIX)
+                && normalized.endsWith(PATTERN_SUFFIX)) {
+            final String regex =
+                    normalized.substring(REGEX_PREFIX.length(), normalized.length() - PATTERN_SUFFIX.length());
+            return new PathPattern(Pattern.compile(regex), false, null);
+        }
+        if (normalized.length() > ANT_PREFIX.length() + PATTERN_SUFFIX.length()
+                && normalized.startsWith(ANT_PREFIX)
+                && normalized.endsWith(PATTERN_SUFFIX)) {
+            normalized = normalized.substring(ANT_PREFIX.length(), normalized.length() - PATTERN_SUFFIX.length());
+        }
+        normalized = normalized.replace('\\', '/');
+        if (trailingDeepTree && normalized.endsWith("/")) {
+            normalized += DEEP_TREE;
+        }
+        final List<Segment> segments = new ArrayList<>();
+        final StringTokenizer tokenizer = new StringTokenizer(normalized, "/");
+        while (tokenizer.hasMoreTokens()) {
+            segments.add(new Segment(tokenizer.nextToken()));
+        }
+        return new PathPattern(null, normalized.startsWith("/"), segments.toArray(new Segment[0]));
+    }
+
+    /**
+     * Specify if this pattern is a regular expression.
+     */
+    boolean isRegex() {
+        return regex != null;
+    }
+
+    /**
+     * Specify if this pattern is an ant pattern starting with a separator.
+     */
+    boolean isAbsolute() {
+        return absolute;
+    }
+
+    boolean endsWithDeepTree() {
+        return segments.length > 0 && segments[segments.length - 1].deepTree;
+    }
+
+    PathPattern withoutTrailingDeepTrees() {
+        int length = segments.length;
+        while (length > 0 && segments[length - 1].deepTree) {
+            length--;
+        }
+        final Segment[] trimmed = new Segment[length];
+        System.arraycopy(segments, 0, trimmed, 0, length);
+        return new PathPattern(null, absolute, trimmed);
+    }
+
+    /**
+     * Specify if this pattern matches the specified path. A leading separator is not taken into account.
+     *
+     * @param path the segments of the path, used by ant patterns
+     * @param rawPath the path, used by regular expressions
+     */
+    boolean matches(List<String> path, String rawPath) {
+        if (regex != null) {
+            return regex.matcher(rawPath).matches();
+        }
+        int patStart = 0;
+        int patEnd = segments.length - 1;
+        int strStart = 0;
+        int strEnd = path.size() - 1;
+
+        // up to the first **
+        while (patStart <= patEnd && strStart <= strEnd && !segments[patStart].deepTree) {
+            if (!segments[patStart].matches(path.get(strStart))) {
+                return false;
+            }
+            patStart++;
+            strStart++;
+        }
+        if (strStart > strEnd) {
+            return onlyDeepTrees(patStart, patEnd);
+        } else if (patStart > patEnd) {
+            return false;
+        }
+
+        // up to the last **
+        while (patStart <= patEnd && strStart <= strEnd && !segments[patEnd].deepTree) {
+            if (!segments[patEnd].matches(path.get(strEnd))) {
+                return false;
+            }
+            patEnd--;
+            strEnd--;
+        }
+        if (strStart > strEnd) {
+            return onlyDeepTrees(patStart, patEnd);
+        }
+
+        while (patStart != patEnd && strStart <= strEnd) {
+            int patNext = -1;
+            for (int i = patStart + 1; i <= patEnd; i++) {
+                if (segments[i].deepTree) {
+                    patNext = i;
+                    break;
+                }
+            }
+            if (patNext == patStart + 1) {
+                // **/** situation, so skip one
+                patStart++;
+                continue;
+            }
+            // find the pattern between patStart and patNext in the path
+            final int patLength = patNext - patStart - 1;
+            final int strLength = strEnd - strStart + 1;
+            int found = -1;
+            strLoop:
+            for (int i = 0; i <= strLength - patLength; i++) {
+                for (int j = 0; j < patLength; j++) {
+                    if (!segments[patStart + j + 1].matches(path.get(strStart + i + j))) {
+                        continue strLoop;
+                    }
+                }
+                found = strStart + i;
+                break;
+            }
+            if (found == -1) {
+                return false;
+            }
+            patStart = patNext;
+            strStart = found + patLength;
+        }
+        return onlyDeepTrees(patStart, patEnd);
+    }
+
+    /**
+     * Specify if this pattern could match the content of the specified relative directory.
+     */
+    boolean matchesStart(List<String> path) {
+        if (regex != null) {
+            return true;
+        }
+        if (absolute) {
+            // as the DirectoryScanner does, a directory never matches the start of a pattern starting with a
+            // separator, since relative paths don't
+            return false;
+        }
+        int patStart = 0;
+        int strStart = 0;
+        while (patStart < segments.length && strStart < path.size() && !segments[patStart].deepTree) {
+            if (!segments[patStart].matches(path.get(strStart))) {
+                return false;
+            }
+            patStart++;
+            strStart++;
+        }
+        return strStart >= path.size() || patStart < segments.length;
+    }
+
+    private boolean onlyDeepTrees(int from, int to) {
+        for (int i = from; i <= to; i++) {
+            if (!segments[i].deepTree) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A segment of an ant pattern: <code>**</code>, a literal name or a name with <code>*</code> and <code>?</code>
+     * wildcards. The literal prefix and suffix of a name with wildcards, such as the extension in <code>*.jar</code>,
+     * are checked before its regular expression, which is only needed if the name has several wildcards.
+     */
+    private static final class Segment {
+        private final boolean deepTree;
+
+        private final String literal;
+
+        private final String prefix;
+
+        private final String suffix;
+
+        private final int minLength;
+
+        private final Pattern wildcard;
+
+        Segment(String segment) {
+            this.deepTree = DEEP_TREE.equals(segment);
+            final int first = firstWildcard(segment);
+            if (deepTree || first < 0) {
+                this.literal = segment;
+                this.prefix = null;
+                this.suffix = null;
+                this.minLength = segment.length();
+                this.wildcard = null;
+                return;
+            }
+            final int last = Math.max(segment.lastIndexOf('*'), segment.lastIndexOf('?'));
+            this.literal = null;
+            this.prefix = segment.substring(0, first);
+            this.suffix = segment.substring(last + 1);
+            this.minLength = prefix.length() + suffix.length();
+            if (first == last && segment.charAt(first) == '*') {
+                // a single *, the prefix and the suffix are enough
+                this.wildcard = null;
+                return;
+            }
+            final StringBuilder regex = new StringBuilder();
+            final StringBuilder quoted = new StringBuilder();
+            for (char c : segment.toCharArray()) {
+                if (c == '*' || c == '?') {
+                    if (quoted.length() > 0) {
+                        regex.append(Pattern.quote(quoted.toString()));
+                        quoted.setLength(0);
+                    }
+                    regex.append(c == '*' ? ".*" : ".");
+                } else {
+                    quoted.append(c);
+                }
+            }
+            if (quoted.length() > 0) {
+                regex.append(Pattern.quote(quoted.toString()));
+            }
+            this.wildcard = Pattern.compile(regex.toString(), Pattern.DOTALL);
+        }
+
+        private static int firstWildcard(String segment) {
+            final int star = segment.indexOf('*');
+            final int question = segment.indexOf('?');
+            return star < 0 ? question : question < 0 ? star : Math.min(star, question);
+        }
+
+        boolean matches(String name) {
+            if (literal != null) {
+                return literal.equals(name);
+            }
+            if (name.length() < minLength || !name.startsWith(prefix) || !name.endsWith(suffix)) {
+                return false;
+            }
+            return wildcard == null || wildcard.matcher(name).matches();
+        }
+    }
+}
@@ -19,13 +19,14 @@
 package org.apache.maven.plugins.war.util;
 
 import java.io.File;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
-import java.util.Set;
-
-import org.codehaus.plexus.util.DirectoryScanner;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * Set of file's paths.
@@ -33,29 +34,115 @@ import org.codehaus.plexus.util.DirectoryScanner;
  * The class extends functionality of a "normal" set of strings by a process of the paths normalization. All paths are
  * converted to unix form (slashes) and they don't start with starting /.
  *
+ * The paths are stored in a trie of their segments, so that the common parent directories of many paths are only
+ * stored once and prefix operations only touch the affected nodes. The paths are iterated in insertion order.
+ *
  * @author Piotr Tabor
  */
 public class PathSet implements Iterable<String> {
     private static final String SEPARATOR = "/";
     private static final char SEPARATOR_CHAR = SEPARATOR.charAt(0);
+
     /**
-     * Set of normalized paths.
+     * The root node, that is the empty path.
      */
-    private Set<String> pathsSet = new LinkedHashSet<>();
+    private static final int ROOT = 0;
+
+    private static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // The trie is stored in columns: node i is the segment of segmentLengths[i] chars at segmentStarts[i] in segments
+    // under the node parents[i], and its path is at positions[i] in the insertion order if it belongs to the set. The
+    // children of a node are chained from firstChildren through nextSiblings.
+
+    private int nodeCount;
+
+    private int[] parents;
+
+    private int[] firstChildren;
+
+    private int[] nextSiblings;
 
+    private int[] positions;
+
+    private int[] segmentStarts;
+
+    private int[] segmentLengths;
+
+    /**
+     * The characters of all the segments.
+     */
+    private char[] segments;
+
+    private int segmentsLength;
+
+    /**
+     * An open addressing hash table of the nodes, by parent and segment. A slot holds the node plus one, 0 if it's
+     * empty and {@link #NONE} if its node moved.
+     */
+    private int[] table;
+
+    private int usedSlots;
+
+    /**
+     * The nodes of the paths of the set in insertion order. A removed path leaves a stale entry, that is an entry
+     * whose node's position is not its index, until the order is compacted.
+     */
+    private int[] order;
+
+    private int orderLength;
+
+    private int size;
+
+    private int modCount;
+
+    /**
+     * Normalizes the specified path in a single pass: backslashes are converted to slashes, sequences of separators
+     * are collapsed and leading and trailing separators are removed. An already normalized path is returned as is.
+     *
+     * @param path the path to normalize
+     * @return the normalized path
+     */
     static String normalizeSubPath(String path) {
-        if (path.isEmpty()) {
+        final int length = path.length();
+        if (isNormalized(path)) {
             return path;
         }
-        String cleanPath = path.replaceAll("[\\\\]+", SEPARATOR).replaceAll("[/]+", SEPARATOR);
-        cleanPath = cleanPath.charAt(0) == SEPARATOR_CHAR ? cleanPath.substring(1) : cleanPath;
-        if (cleanPath.isEmpty()) {
-            return cleanPath;
+        final StringBuilder cleanPath = new StringBuilder(length);
+        boolean separator = false;
+        for (int i = 0; i < length; i++) {
+            final char c = path.charAt(i);
+            if (c == SEPARATOR_CHAR || c == '\\') {
+                separator = true;
+            } else {
+                if (separator && cleanPath.length() > 0) {
+                    cleanPath.append(SEPARATOR_CHAR);
+                }
+                separator = false;
+                cleanPath.append(c);
+            }
+        }
+        return cleanPath.toString();
+    }
+
+    private static boolean isNormalized(String path) {
+        final int length = path.length();
+        if (length == 0) {
+            return true;
         }
-        if (cleanPath.charAt(cleanPath.length() - 1) == SEPARATOR_CHAR) {
-            return cleanPath.substring(0, cleanPath.length() - 1);
+        if (path.charAt(0) == SEPARATOR_CHAR || path.charAt(length - 1) == SEPARATOR_CHAR) {
+            return false;
         }
-        return cleanPath;
+        char previous = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = path.charAt(i);
+            if (c == '\\' || (c == SEPARATOR_CHAR && previous == SEPARATOR_CHAR)) {
+                return false;
+            }
+            previous = c;
+        }
+        return true;
     }
 
     /*-------------------- Business interface ------------------------------*/
@@ -64,7 +151,7 @@ public class PathSet implements Iterable<String> {
      * Creates an empty paths set.
      */
     public PathSet() {
-        /* Empty default constructor */
+        clear();
     }
 
     /**
@@ -73,6 +160,7 @@ public class PathSet implements Iterable<String> {
      * @param paths to be added
      */
     public PathSet(Collection<String> paths) {
+        this();
         addAll(paths);
     }
 
@@ -82,6 +170,7 @@ public class PathSet implements Iterable<String> {
      * @param paths to be added
      */
     public PathSet(String[] paths) {
+        this();
         addAll(paths);
     }
 
@@ -91,7 +180,34 @@ public class PathSet implements Iterable<String> {
      * @param path to be added
      */
     public void add(String path) {
-        pathsSet.add(normalizeSubPath(path));
+        addNormalized(normalizeSubPath(path));
+    }
+
+    /**
+     * Adds given path, which must already be normalized, to the set. This skips the normalization of paths that are
+     * known to be normalized, such as the ones of another set.
+     *
+     * @param path to be added
+     * @return the id of the path
+     * @see #addAndGetId(String)
+     */
+    int addNormalized(String path) {
+        int node = ROOT;
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf(SEPARATOR_CHAR, start);
+            if (end < 0) {
+                end = path.length();
+            }
+            int child = getChild(node, path, start, end);
+            if (child == NONE) {
+                child = addChild(node, path, start, end);
+            }
+            node = child;
+            start = end + 1;
+        }
+        addNode(node);
+        return node;
     }
 
     /**
@@ -125,8 +241,13 @@ public class PathSet implements Iterable<String> {
      * @param prefix added to all given paths
      */
     public void addAll(PathSet paths, String prefix) {
+        final String normalizedPrefix = normalizeSubPath(prefix);
         for (String path : paths) {
-            add(prefix + SEPARATOR + path);
+            if (normalizedPrefix.isEmpty()) {
+                addNormalized(path);
+            } else {
+                add(normalizedPrefix + SEPARATOR + path);
+            }
         }
     }
 
@@ -164,7 +285,60 @@ public class PathSet implements Iterable<String> {
      * @return information if the set constains the path
      */
     public boolean contains(String path) {
-        return pathsSet.contains(normalizeSubPath(path));
+        final int node = find(normalizeSubPath(path));
+        return node != NONE && positions[node] != NONE;
+    }
+
+    /**
+     * Normalizes and adds given path to the set, and returns its id.
+     *
+     * The id of a path is a small non-negative integer that does not change as long as the path is in the set, nor
+     * when other paths are added or removed. It can thus index a column of values of the paths.
+     *
+     * @param path to be added
+     * @return the id of the path
+     */
+    int addAndGetId(String path) {
+        return addNormalized(normalizeSubPath(path));
+    }
+
+    /**
+     * Returns the id of the specified path.
+     *
+     * @param path the path, normalized before lookup
+     * @return the id of the path or -1 if it's not in the set
+     * @see #addAndGetId(String)
+     */
+    int getId(String path) {
+        final int node = find(normalizeSubPath(path));
+        return node != NONE && positions[node] != NONE ? node : NONE;
+    }
+
+    /**
+     * Returns the ids of the paths of the set, in insertion order.
+     *
+     * @return the ids of the paths
+     * @see #addAndGetId(String)
+     */
+    int[] getIds() {
+        final int[] ids = new int[size];
+        int index = 0;
+        for (int i = 0; i < orderLength; i++) {
+            if (positions[order[i]] == i) {
+                ids[index++] = order[i];
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the normalized path of the specified id.
+     *
+     * @param id the id of a path of the set
+     * @return the normalized path
+     */
+    String getPath(int id) {
+        return toPath(id);
     }
 
     /**
@@ -174,7 +348,12 @@ public class PathSet implements Iterable<String> {
      * @return true if the path was removed, false if it did not existed
      */
     boolean remove(String path) {
-        return pathsSet.remove(normalizeSubPath(path));
+        final int node = find(normalizeSubPath(path));
+        if (node == NONE || positions[node] == NONE) {
+            return false;
+        }
+        removeNode(node);
+        return true;
     }
 
     /**
@@ -184,14 +363,68 @@ public class PathSet implements Iterable<String> {
      */
     @Override
     public Iterator<String> iterator() {
-        return pathsSet.iterator();
+        return new PathIterator();
     }
 
     /**
-     * @return {@link #pathsSet}
+     * Returns the paths of the set as a collection backed by the set, in insertion order.
+     *
+     * @return the normalized paths
      */
     public Collection<String> paths() {
-        return pathsSet;
+        return new AbstractCollection<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return PathSet.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && PathSet.this.contains((String) o);
+            }
+        };
+    }
+
+    /**
+     * Returns the paths of the set located under the specified directory, in insertion order. Only the nodes of the
+     * directory are visited.
+     *
+     * @param directory the directory, relative to the root of the set
+     * @return the paths under the directory, relative to the root of the set
+     * @since 3.5.2
+     */
+    public PathSet getPathsUnder(String directory) {
+        final PathSet result = new PathSet();
+        final int node = find(normalizeSubPath(directory));
+        if (node == NONE) {
+            return result;
+        }
+        int[] found = new int[INITIAL_CAPACITY];
+        int foundLength = 0;
+        int[] stack = new int[INITIAL_CAPACITY];
+        int stackLength = 0;
+        for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+            stack = push(stack, stackLength++, child);
+        }
+        while (stackLength > 0) {
+            final int current = stack[--stackLength];
+            if (positions[current] != NONE) {
+                found = push(found, foundLength++, positions[current]);
+            }
+            for (int child = firstChildren[current]; child != NONE; child = nextSiblings[child]) {
+                stack = push(stack, stackLength++, child);
+            }
+        }
+        Arrays.sort(found, 0, foundLength);
+        for (int i = 0; i < foundLength; i++) {
+            result.addNormalized(toPath(order[found[i]]));
+        }
+        return result;
     }
 
     /**
@@ -202,11 +435,47 @@ public class PathSet implements Iterable<String> {
      * @param prefix to be added to all items
      */
     public void addPrefix(String prefix) {
-        final Set<String> newSet = new HashSet<>();
-        for (String path : pathsSet) {
-            newSet.add(normalizeSubPath(prefix + path));
+        final String normalizedPrefix = normalizeSubPath(prefix);
+        if (normalizedPrefix.isEmpty()) {
+            return;
+        }
+        final char last = prefix.charAt(prefix.length() - 1);
+        if (last != SEPARATOR_CHAR && last != '\\') {
+            // the prefix is concatenated to the first segment of each path
+            final List<String> paths = new ArrayList<>(paths());
+            clear();
+            for (String path : paths) {
+                add(prefix + path);
+            }
+            return;
+        }
+        // move the children of the root under the nodes of the prefix
+        final int children = firstChildren[ROOT];
+        for (int child = children; child != NONE; child = nextSiblings[child]) {
+            removeFromTable(child);
+        }
+        firstChildren[ROOT] = NONE;
+        int node = ROOT;
+        int start = 0;
+        while (start < normalizedPrefix.length()) {
+            int end = normalizedPrefix.indexOf(SEPARATOR_CHAR, start);
+            if (end < 0) {
+                end = normalizedPrefix.length();
+            }
+            node = addChild(node, normalizedPrefix, start, end);
+            start = end + 1;
+        }
+        firstChildren[node] = children;
+        for (int child = children; child != NONE; child = nextSiblings[child]) {
+            parents[child] = node;
+            addToTable(child);
+        }
+        if (positions[ROOT] != NONE) {
+            positions[node] = positions[ROOT];
+            order[positions[node]] = node;
+            positions[ROOT] = NONE;
         }
-        pathsSet = newSet;
+        modCount++;
     }
 
     /**
@@ -215,7 +484,7 @@ public class PathSet implements Iterable<String> {
      * @return count of the paths in the set
      */
     public int size() {
-        return pathsSet.size();
+        return size;
     }
 
     /**
@@ -225,9 +494,265 @@ public class PathSet implements Iterable<String> {
      * @param prefix to be added to all found files
      */
     public void addAllFilesInDirectory(File directory, String prefix) {
-        DirectoryScanner scanner = new DirectoryScanner();
-        scanner.setBasedir(directory);
-        scanner.scan();
-        addAll(scanner.getIncludedFiles(), prefix);
+        addAll(new FileScanner(null, null, false).scan(directory), prefix);
+    }
+
+    private int find(String path) {
+        int node = ROOT;
+        int start = 0;
+        while (node != NONE && start < path.length()) {
+            int end = path.indexOf(SEPARATOR_CHAR, start);
+            if (end < 0) {
+                end = path.length();
+            }
+            node = getChild(node, path, start, end);
+            start = end + 1;
+        }
+        return node;
+    }
+
+    private int getChild(int parent, String path, int start, int end) {
+        final int length = end - start;
+        final int mask = table.length - 1;
+        for (int slot = hash(parent, path, start, end) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            final int node = table[slot] - 1;
+            if (node >= 0
+                    && parents[node] == parent
+                    && segmentLengths[node] == length
+                    && segmentEquals(segmentStarts[node], path, start, length)) {
+                return node;
+            }
+        }
+        return NONE;
+    }
+
+    private boolean segmentEquals(int segmentStart, String path, int start, int length) {
+        for (int i = 0; i < length; i++) {
+            if (segments[segmentStart + i] != path.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int addChild(int parent, String path, int start, int end) {
+        final int length = end - start;
+        if (nodeCount == parents.length) {
+            final int capacity = nodeCount + (nodeCount >> 1);
+            parents = Arrays.copyOf(parents, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            segmentStarts = Arrays.copyOf(segmentStarts, capacity);
+            segmentLengths = Arrays.copyOf(segmentLengths, capacity);
+        }
+        if (segmentsLength + length > segments.length) {
+            segments = Arrays.copyOf(segments, Math.max(segmentsLength + length, segments.length * 2));
+        }
+        path.getChars(start, end, segments, segmentsLength);
+        final int node = nodeCount++;
+        parents[node] = parent;
+        firstChildren[node] = NONE;
+        nextSiblings[node] = firstChildren[parent];
+        firstChildren[parent] = node;
+        positions[node] = NONE;
+        segmentStarts[node] = segmentsLength;
+        segmentLengths[node] = length;
+        segmentsLength += length;
+        addToTable(node);
+        return node;
+    }
+
+    private int hash(int parent, String path, int start, int end) {
+        int hash = parent;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + path.charAt(i);
+        }
+        return mix(hash);
+    }
+
+    private int hash(int node) {
+        int hash = parents[node];
+        final int segmentEnd = segmentStarts[node] + segmentLengths[node];
+        for (int i = segmentStarts[node]; i < segmentEnd; i++) {
+            hash = 31 * hash + segments[i];
+        }
+        return mix(hash);
+    }
+
+    private static int mix(int hash) {
+        final int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void addToTable(int node) {
+        if (2 * (usedSlots + 1) > table.length) {
+            rehash();
+        }
+        final int mask = table.length - 1;
+        int slot = hash(node) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = node + 1;
+        usedSlots++;
+    }
+
+    private void removeFromTable(int node) {
+        final int mask = table.length - 1;
+        int slot = hash(node) & mask;
+        while (table[slot] != node + 1) {
+            slot = (slot + 1) & mask;
+        }
+        // keep the slot used so that the probing of other nodes goes on
+        table[slot] = NONE;
+    }
+
+    private void rehash() {
+        int capacity = table.length;
+        while (2 * (nodeCount + 1) > capacity) {
+            capacity *= 2;
+        }
+        table = new int[capacity];
+        usedSlots = 0;
+        for (int node = ROOT + 1; node < nodeCount; node++) {
+            final int mask = table.length - 1;
+            int slot = hash(node) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = node + 1;
+            usedSlots++;
+        }
+    }
+
+    private String toPath(int node) {
+        int length = -1;
+        for (int current = node; current != ROOT; current = parents[current]) {
+            length += segmentLengths[current] + 1;
+        }
+        if (length <= 0) {
+            return "";
+        }
+        final char[] chars = new char[length];
+        int end = length;
+        for (int current = node; current != ROOT; current = parents[current]) {
+            end -= segmentLengths[current];
+            System.arraycopy(segments, segmentStarts[current], chars, end, segmentLengths[current]);
+            if (end > 0) {
+                chars[--end] = SEPARATOR_CHAR;
+            }
+        }
+        return new String(chars);
+    }
+
+    private void addNode(int node) {
+        if (positions[node] != NONE) {
+            return;
+        }
+        positions[node] = orderLength;
+        order = push(order, orderLength++, node);
+        size++;
+        modCount++;
+    }
+
+    private void removeNode(int node) {
+        positions[node] = NONE;
+        size--;
+        modCount++;
+        if (orderLength > 2 * size + INITIAL_CAPACITY) {
+            // compact the stale entries
+            int compactedLength = 0;
+            for (int i = 0; i < orderLength; i++) {
+                final int candidate = order[i];
+                if (positions[candidate] == i) {
+                    positions[candidate] = compactedLength;
+                    order[compactedLength++] = candidate;
+                }
+            }
+            orderLength = compactedLength;
+        }
+    }
+
+    private void clear() {
+        nodeCount = 1;
+        parents = new int[INITIAL_CAPACITY];
+        firstChildren = new int[INITIAL_CAPACITY];
+        nextSiblings = new int[INITIAL_CAPACITY];
+        positions = new int[INITIAL_CAPACITY];
+        segmentStarts = new int[INITIAL_CAPACITY];
+        segmentLengths = new int[INITIAL_CAPACITY];
+        parents[ROOT] = NONE;
+        firstChildren[ROOT] = NONE;
+        nextSiblings[ROOT] = NONE;
+        positions[ROOT] = NONE;
+        segments = new char[INITIAL_CAPACITY * 8];
+        segmentsLength = 0;
+        table = new int[INITIAL_CAPACITY * 2];
+        usedSlots = 0;
+        order = new int[INITIAL_CAPACITY];
+        orderLength = 0;
+        size = 0;
+        modCount++;
+    }
+
+    private static int[] push(int[] array, int index, int value) {
+        final int[] result = index < array.length ? array : Arrays.copyOf(array, array.length * 2);
+        result[index] = value;
+        return result;
+    }
+
+    /**
+     * Iterates over the paths in insertion order, skipping the stale entries.
+     */
+    private final class PathIterator implements Iterator<String> {
+        private int expectedModCount = modCount;
+
+        private int next;
+
+        private int last = NONE;
+
+        PathIterator() {
+            skipStale();
+        }
+
+        private void skipStale() {
+            while (next < orderLength && positions[order[next]] != next) {
+                next++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < orderLength;
+        }
+
+        @Override
+        public String next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= orderLength) {
+                throw new NoSuchElementException();
+            }
+            last = order[next++];
+            skipStale();
+            return toPath(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last == NONE) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            positions[last] = NONE;
+            size--;
+            modCount++;
+            expectedModCount = modCount;
+            last = NONE;
+        }
     }
 }
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scans the raw bytes of files for the start of an expression or for the escape string, so that files that filtering
+ * would not change can be copied instead.
+ *
+ * The scan is only performed if the delimiters and the escape string are encoded as ASCII by the encoding of the file;
+ * files using another encoding (such as UTF-16) are always considered to contain a token. Files are read in chunks
+ * through pooled buffers, and are never memory mapped so that they are not kept open until garbage collection.
+ *
+ * This class is thread-safe.
+ *
+ * @since 3.5.2
+ */
+public class TokenScanner {
+    /**
+     * The size of the pooled buffers, files larger than that are read in several chunks.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[][] NOT_APPLICABLE = new byte[0][];
+
+    private final List<String> tokens = new ArrayList<>();
+
+    private final Map<String, byte[][]> patterns = new ConcurrentHashMap<>();
+
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong scannedFiles = new AtomicLong();
+
+    private final AtomicLong tokenFreeFiles = new AtomicLong();
+
+    /**
+     * Creates a new scanner.
+     *
+     * @param delimiters the expression delimiters, such as <code>${*}</code> or <code>@</code>
+     * @param escapeString the escape string, may be {@code null}
+     */
+    public TokenScanner(Collection<String> delimiters, String escapeString) {
+        for (String delimiter : delimiters) {
+            final int index = delimiter.indexOf('*');
+            tokens.add(index >= 0 ? delimiter.substring(0, index) : delimiter);
+        }
+        if (escapeString != null && !escapeString.isEmpty()) {
+            tokens.add(escapeString);
+        }
+    }
+
+    /**
+     * Specify if the specified file may contain an expression or the escape string.
+     *
+     * @param file the file to scan
+     * @param encoding the encoding of the file, may be {@code null}
+     * @return false if filtering the file would not change it, true otherwise
+     * @throws IOException if the file could not be read
+     */
+    public boolean mayContainToken(File file, String encoding) throws IOException {
+        final byte[][] filePatterns = patterns.computeIfAbsent(String.valueOf(encoding), k -> encode(encoding));
+        if (filePatterns == NOT_APPLICABLE) {
+            return true;
+        }
+        scannedFiles.incrementAndGet();
+        final boolean found;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            found = scanThroughBuffer(channel, filePatterns);
+        }
+        if (!found) {
+            tokenFreeFiles.incrementAndGet();
+        }
+        return found;
+    }
+
+    private boolean scanThroughBuffer(FileChannel channel, byte[][] filePatterns) throws IOException {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+        try {
+            final int overlap = getMaxLength(filePatterns) - 1;
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                if (contains(buffer, filePatterns)) {
+                    return true;
+                }
+                // keep the bytes that may start a token ending in the next chunk
+                buffer.position(Math.max(0, buffer.limit() - overlap));
+                buffer.compact();
+            }
+            return false;
+        } finally {
+            buffers.offer(buffer);
+        }
+    }
+
+    private static int getMaxLength(byte[][] filePatterns) {
+        int maxLength = 1;
+        for (byte[] pattern : filePatterns) {
+            maxLength = Math.max(maxLength, pattern.length);
+        }
+        return maxLength;
+    }
+
+    private static boolean contains(ByteBuffer buffer, byte[][] filePatterns) {
+        final int limit = buffer.limit();
+        for (int i = buffer.position(); i < limit; i++) {
+            final byte b = buffer.get(i);
+            for (byte[] pattern : filePatterns) {
+                if (pattern[0] == b && matches(buffer, i, limit, pattern)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(ByteBuffer buffer, int index, int limit, byte[] pattern) {
+        if (index + pattern.length > limit) {
+            return false;
+        }
+        for (int j = 1; j < pattern.length; j++) {
+            if (buffer.get(index + j) != pattern[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes the tokens with the specified encoding, if it encodes them as ASCII.
+     */
+    private byte[][] encode(String encoding) {
+        final Charset charset;
+        try {
+            charset = encoding == null ? Charset.defaultCharset() : Charset.forName(encoding);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            // let the filtering report the invalid encoding
+            return NOT_APPLICABLE;
+        }
+        final byte[][] encoded = new byte[tokens.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            final String token = tokens.get(i);
+            final byte[] ascii = token.getBytes(StandardCharsets.US_ASCII);
+            encoded[i] = token.getBytes(charset);
+            if (token.isEmpty() || !token.equals(new String(ascii, StandardCharsets.US_ASCII))
+                    || !Arrays.equals(ascii, encoded[i])) {
+                return NOT_APPLICABLE;
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * Returns the number of files that have been scanned.
+     *
+     * @return the number of scanned files
+     */
+    public long getScannedFiles() {
+        return scannedFiles.get();
+    }
+
+    /**
+     * Returns the number of scanned files that do not contain any token.
+     *
+     * @return the number of files that did not need to be filtered
+     */
+    public long getTokenFreeFiles() {
+        return tokenFreeFiles.get();
+    }
+}
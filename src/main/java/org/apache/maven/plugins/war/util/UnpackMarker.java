@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+
+/**
+ * A marker recording that an archive has been fully extracted to a directory.
+ *
+ * The marker holds the size, the last modification time and the digest of the archive, the include and exclude
+ * patterns used for the extraction, and whether the extraction produced no file at all. It is deleted before an
+ * extraction starts and written once the extraction completed, so that an interrupted extraction is detected. As long
+ * as the size and the last modification time of the archive match the marker, checking the extraction only reads the
+ * marker. Otherwise the digest of the archive is compared, so that an archive that was touched or resolved again with
+ * the same content is not extracted again.
+ *
+ * @since 3.5.2
+ */
+public class UnpackMarker {
+    private static final int MAGIC = 0x5741524d;
+
+    private static final int VERSION = 2;
+
+    private final File markerFile;
+
+    private final IndexFile indexFile;
+
+    /**
+     * Creates a marker.
+     *
+     * @param markerFile the file the marker is read from and written to
+     */
+    public UnpackMarker(File markerFile) {
+        this.markerFile = markerFile;
+        this.indexFile = new IndexFile(markerFile, MAGIC, VERSION, "unpack marker");
+    }
+
+    /**
+     * Specify if the marker records a complete extraction of the specified archive with the specified patterns, that
+     * left the directory as empty as it is now. An extraction that produced files is not up to date if its directory
+     * has been emptied since. The marker is updated if the archive changed its timestamp but not its content.
+     *
+     * @param archive the archive
+     * @param includes the include patterns of the extraction, may be {@code null}
+     * @param excludes the exclude patterns of the extraction, may be {@code null}
+     * @param empty whether the directory the archive was extracted to is currently empty
+     * @return {@code true} if the extraction is up to date
+     * @throws IOException if the marker or the archive could not be read
+     */
+    public boolean isUpToDate(File archive, String[] includes, String[] excludes, boolean empty) throws IOException {
+        if (!markerFile.isFile()) {
+            return false;
+        }
+        final BasicFileAttributes attributes = Files.readAttributes(archive.toPath(), BasicFileAttributes.class);
+        final Recorded recorded = indexFile.read(in -> {
+            if (in.readLong() != attributes.size()
+                    || !Arrays.equals(readPatterns(in), normalize(includes))
+                    || !Arrays.equals(readPatterns(in), normalize(excludes))
+                    || in.readBoolean() != empty) {
+                return null;
+            }
+            final long lastModified = in.readLong();
+            final byte[] digest = new byte[in.readUnsignedShort()];
+            in.readFully(digest);
+            return new Recorded(lastModified, digest);
+        });
+        if (recorded == null) {
+            return false;
+        }
+        if (recorded.lastModified == attributes.lastModifiedTime().toMillis()) {
+            return true;
+        }
+        final byte[] currentDigest = DigestIndex.computeDigest(archive.toPath());
+        if (!Arrays.equals(recorded.digest, currentDigest)) {
+            return false;
+        }
+        write(attributes, includes, excludes, empty, currentDigest);
+        return true;
+    }
+
+    /**
+     * Deletes the marker, before an extraction starts.
+     *
+     * @throws IOException if the marker could not be deleted
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(markerFile.toPath());
+    }
+
+    /**
+     * Writes the marker, once the specified archive has been fully extracted with the specified patterns.
+     *
+     * @param archive the archive
+     * @param includes the include patterns of the extraction, may be {@code null}
+     * @param excludes the exclude patterns of the extraction, may be {@code null}
+     * @param empty whether the extraction produced no file
+     * @throws IOException if the archive could not be read or the marker could not be written
+     */
+    public void write(File archive, String[] includes, String[] excludes, boolean empty) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(archive.toPath(), BasicFileAttributes.class);
+        write(attributes, includes, excludes, empty, DigestIndex.computeDigest(archive.toPath()));
+    }
+
+    private void write(
+            BasicFileAttributes attributes, String[] includes, String[] excludes, boolean empty, byte[] digest)
+            throws IOException {
+        indexFile.write(out -> {
+            out.writeLong(attributes.size());
+            writePatterns(out, normalize(includes));
+            writePatterns(out, normalize(excludes));
+            out.writeBoolean(empty);
+            out.writeLong(attributes.lastModifiedTime().toMillis());
+            out.writeShort(digest.length);
+            out.write(digest);
+        });
+    }
+
+    private static String[] normalize(String[] patterns) {
+        return patterns == null ? new String[0] : patterns;
+    }
+
+    private static String[] readPatterns(DataInputStream in) throws IOException {
+        final String[] patterns = new String[in.readInt()];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = in.readUTF();
+        }
+        return patterns;
+    }
+
+    private static void writePatterns(DataOutputStream out, String[] patterns) throws IOException {
+        out.writeInt(patterns.length);
+        for (String pattern : patterns) {
+            out.writeUTF(pattern);
+        }
+    }
+
+    private static final class Recorded {
+        private final long lastModified;
+
+        private final byte[] digest;
+
+        Recorded(long lastModified, byte[] digest) {
+            this.lastModified = lastModified;
+            this.digest = digest;
+        }
+    }
+}
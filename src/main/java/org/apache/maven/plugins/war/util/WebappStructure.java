@@ -20,11 +20,17 @@ package org.apache.maven.plugins.war.util;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.model.Dependency;
@@ -35,15 +41,46 @@ import org.apache.maven.model.Dependency;
  *
  * Note that this structure is persisted to disk at each invocation to store which owner holds which path (file).
  *
+ * The structure is stored in columns: each registered path is only stored once, in the full structure, and its id
+ * indexes the owner column, which holds the index of its owner in the owner table. The structure of an owner is
+ * computed from these columns when requested.
+ *
+ * This structure is thread-safe, so that packaging tasks may register files concurrently. The outcome does not depend
+ * on the order in which threads register a path: the owners are ranked in the order they are first known, which is
+ * the order of the overlays when they are registered upfront, and a path registered by an owner is taken over by any
+ * owner ranked before it. The callbacks are invoked without holding any lock. The {@link #getFullStructure() full
+ * structure} should only be iterated once the files are registered.
+ *
  * @author Stephane Nicoll
  */
 public class WebappStructure {
 
-    private Map<String, PathSet> registeredFiles;
+    private static final int NO_OWNER = 0;
+
+    private static final int NOT_REGISTERED = -1;
 
     private List<DependencyInfo> dependenciesInfo;
 
-    private transient PathSet allFiles = new PathSet();
+    /**
+     * The structure of the previous build, if any.
+     */
+    private final WebappStructure cache;
+
+    private final PathSet allFiles = new PathSet();
+
+    /**
+     * The index of each owner in {@link #owners}, in registration order.
+     */
+    private final Map<String, Integer> ownerIndexes = new LinkedHashMap<>();
+
+    private final List<String> owners = new ArrayList<>();
+
+    /**
+     * The index plus one of the owner of each registered path, by path id, or {@link #NO_OWNER}.
+     */
+    private int[] ownerColumn = new int[64];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
     /**
      * Creates a new empty instance.
@@ -51,8 +88,19 @@ public class WebappStructure {
      * @param dependencies the dependencies of the project
      */
     public WebappStructure(List<Dependency> dependencies) {
+        this(dependencies, null);
+    }
+
+    /**
+     * Creates a new empty instance, based on the structure of the previous build.
+     *
+     * @param dependencies the dependencies of the project
+     * @param cache the structure of the previous build, or {@code null}
+     * @since 3.5.2
+     */
+    public WebappStructure(List<Dependency> dependencies, WebappStructure cache) {
         this.dependenciesInfo = createDependenciesInfoList(dependencies);
-        this.registeredFiles = new HashMap<>();
+        this.cache = cache;
     }
 
     /**
@@ -87,23 +135,30 @@ public class WebappStructure {
      * @return true if the path is registered, false otherwise
      */
     public boolean isRegistered(String path) {
-        return getFullStructure().contains(path);
+        final Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return allFiles.contains(path);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
      * Registers the specified path for the specified owner. Returns {@code true} if the path is not already
-     * registered, {@code false} otherwise.
+     * registered, or if it's registered by an owner ranked after the specified one, {@code false} otherwise.
      *
      * @param id the owner of the path
      * @param path the relative path from the webapp root directory
      * @return true if the file was registered successfully
      */
     public boolean registerFile(String id, String path) {
-        if (!isRegistered(path)) {
-            doRegister(id, path);
-            return true;
-        } else {
-            return false;
+        final Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            return doRegisterFile(getOwnerIndex(id) + 1, path) != NOT_REGISTERED;
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -120,20 +175,27 @@ public class WebappStructure {
      * @return false if the file did not exist, true if the owner was replaced
      */
     public boolean registerFileForced(String id, String path) {
-        if (!isRegistered(path)) {
-            doRegister(id, path);
-            return false;
-        } else {
-            // Force the switch to the new owner
-            getStructure(getOwner(path)).remove(path);
-            getStructure(id).add(path);
-            return true;
+        final Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            final int pathId = allFiles.getId(path);
+            if (pathId < 0) {
+                doRegister(id, path);
+                return false;
+            } else {
+                // Force the switch to the new owner
+                ownerColumn[pathId] = getOwnerIndex(id) + 1;
+                return true;
+            }
+        } finally {
+            writeLock.unlock();
         }
     }
 
     /**
      * Registers the specified path for the specified owner. Invokes the {@code callback} with the result of the
-     * registration.
+     * registration. A path registered by an owner ranked after the specified one is taken over, and reported as
+     * superseded.
      *
      * @param id the owner of the path
      * @param path the relative path from the webapp root directory
@@ -141,27 +203,67 @@ public class WebappStructure {
      * @throws IOException if the callback invocation throws an IOException
      */
     public void registerFile(String id, String path, RegistrationCallback callback) throws IOException {
+        final byte[] registration = new byte[1];
+        final String previousOwner;
+        final Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            previousOwner = doRegisterFile(id, getOwnerIndex(id) + 1, path, registration, 0);
+        } finally {
+            writeLock.unlock();
+        }
 
-        // If the file is already in the current structure, rejects it with the current owner
-        if (isRegistered(path)) {
-            callback.refused(id, path, getOwner(path));
-        } else {
-            doRegister(id, path);
-            // This is a new file
-            if (getOwner(path) == null) {
+        switch (Registration.of(registration[0])) {
+            case REGISTERED:
                 callback.registered(id, path);
-
-            } // The file already belonged to this owner
-            else if (getOwner(path).equals(id)) {
+                break;
+            case ALREADY_REGISTERED:
                 callback.alreadyRegistered(id, path);
-            } // The file belongs to another owner and it's known currently
-            else if (getOwners().contains(getOwner(path))) {
-                callback.superseded(id, path, getOwner(path));
-            } // The file belongs to another owner and it's unknown
-            else {
-                callback.supersededUnknownOwner(id, path, getOwner(path));
+                break;
+            case REFUSED:
+                callback.refused(id, path, previousOwner);
+                break;
+            case SUPERSEDED:
+                callback.superseded(id, path, previousOwner);
+                break;
+            default:
+                callback.supersededUnknownOwner(id, path, previousOwner);
+        }
+    }
+
+    /**
+     * Registers the specified paths for the specified owner, as {@link #registerFile(String, String,
+     * RegistrationCallback)} does for each of them, but under a single lock and without any callback.
+     *
+     * @param id the owner of the paths
+     * @param paths the relative paths from the webapp root directory
+     * @return the result of the registration of each path, in the iteration order of {@code paths}
+     * @since 3.5.2
+     */
+    public Registrations registerFiles(String id, PathSet paths) {
+        final byte[] registrations = new byte[paths.size()];
+        final int[] previousOwners = new int[paths.size()];
+        final List<String> previousOwnerIds = new ArrayList<>();
+        final Map<String, Integer> previousOwnerIndexes = new HashMap<>();
+        final Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            final int owner = getOwnerIndex(id) + 1;
+            int index = 0;
+            for (String path : paths) {
+                final String previousOwner = doRegisterFile(id, owner, path, registrations, index);
+                Integer previousOwnerIndex = previousOwnerIndexes.get(previousOwner);
+                if (previousOwnerIndex == null) {
+                    previousOwnerIndex = previousOwnerIds.size();
+                    previousOwnerIds.add(previousOwner);
+                    previousOwnerIndexes.put(previousOwner, previousOwnerIndex);
+                }
+                previousOwners[index++] = previousOwnerIndex;
             }
+        } finally {
+            writeLock.unlock();
         }
+        return new Registrations(registrations, previousOwners, previousOwnerIds);
     }
 
     /**
@@ -171,27 +273,37 @@ public class WebappStructure {
      * @return the owner or {@code null}
      */
     public String getOwner(String path) {
-        if (!isRegistered(path)) {
-            return null;
-        } else {
-            for (final String owner : registeredFiles.keySet()) {
-                final PathSet structure = getStructure(owner);
-                if (structure.contains(path)) {
-                    return owner;
-                }
+        final Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            final int pathId = allFiles.getId(path);
+            if (pathId < 0) {
+                return null;
             }
-            throw new IllegalStateException(
-                    "Should not happen, path [" + path + "] is flagged as being registered but was not found.");
+            final int owner = ownerColumn[pathId];
+            if (owner == NO_OWNER) {
+                throw new IllegalStateException(
+                        "Should not happen, path [" + path + "] is flagged as being registered but was not found.");
+            }
+            return owners.get(owner - 1);
+        } finally {
+            readLock.unlock();
         }
     }
 
     /**
-     * Returns the owners.
+     * Returns the owners, in the order they were first known.
      *
      * @return the list of owners
      */
     public Set<String> getOwners() {
-        return registeredFiles.keySet();
+        final Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return Collections.unmodifiableSet(new LinkedHashSet<>(ownerIndexes.keySet()));
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
@@ -204,18 +316,48 @@ public class WebappStructure {
     }
 
     /**
-     * Returns the list of registered files for the specified owner.
+     * Returns the paths registered by the previous build that have not been registered so far, such as the files of a
+     * removed dependency or overlay. Returns an empty set if there is no previous build.
+     *
+     * @return the paths that are no longer part of the webapp
+     * @since 3.5.2
+     */
+    public PathSet getObsoletePaths() {
+        final PathSet obsoletePaths = new PathSet();
+        if (cache != null) {
+            for (String path : cache.getFullStructure()) {
+                if (!isRegistered(path)) {
+                    obsoletePaths.addNormalized(path);
+                }
+            }
+        }
+        return obsoletePaths;
+    }
+
+    /**
+     * Returns the list of registered files for the specified owner. The owner is registered if it's not known yet.
+     *
+     * The returned set is a snapshot: later registrations are not reflected, and changing it does not change this
+     * structure.
      *
      * @param id the owner
      * @return the list of files registered for that owner
      */
     public PathSet getStructure(String id) {
-        PathSet pathSet = registeredFiles.get(id);
-        if (pathSet == null) {
-            pathSet = new PathSet();
-            registeredFiles.put(id, pathSet);
+        final Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            final int owner = getOwnerIndex(id) + 1;
+            final PathSet pathSet = new PathSet();
+            for (int pathId : allFiles.getIds()) {
+                if (ownerColumn[pathId] == owner) {
+                    pathSet.addNormalized(allFiles.getPath(pathId));
+                }
+            }
+            return pathSet;
+        } finally {
+            writeLock.unlock();
         }
-        return pathSet;
     }
 
     /**
@@ -226,19 +368,102 @@ public class WebappStructure {
      */
     public void registerTargetFileName(Artifact artifact, String targetFileName) {
         if (dependenciesInfo != null) {
-            for (DependencyInfo dependencyInfo : dependenciesInfo) {
-                if (WarUtils.isRelated(artifact, dependencyInfo.getDependency())) {
-                    dependencyInfo.setTargetFileName(targetFileName);
+            final Lock writeLock = lock.writeLock();
+            writeLock.lock();
+            try {
+                for (DependencyInfo dependencyInfo : dependenciesInfo) {
+                    if (WarUtils.isRelated(artifact, dependencyInfo.getDependency())) {
+                        dependencyInfo.setTargetFileName(targetFileName);
+                    }
                 }
+            } finally {
+                writeLock.unlock();
             }
         }
     }
 
     // Private helpers
 
+    /**
+     * Registers the specified path for the specified owner unless it's registered by an owner ranked before it or by
+     * the same owner. Must be called with the write lock held.
+     *
+     * @return {@link #NOT_REGISTERED} if the path was not registered, {@link #NO_OWNER} if it was registered for the
+     *         first time, or the owner column value of the owner it was taken over from
+     */
+    private int doRegisterFile(int owner, String path) {
+        final int pathId = allFiles.getId(path);
+        if (pathId < 0) {
+            doRegister(owner, path);
+            return NO_OWNER;
+        }
+        final int currentOwner = ownerColumn[pathId];
+        if (currentOwner <= owner) {
+            return NOT_REGISTERED;
+        }
+        ownerColumn[pathId] = owner;
+        return currentOwner;
+    }
+
+    /**
+     * Registers the specified path and stores the {@link Registration} in {@code registrations} at {@code index}. Must
+     * be called with the write lock held.
+     *
+     * @return the owner the path was refused for or taken over from, or the owner of the path in the previous build
+     */
+    private String doRegisterFile(String id, int owner, String path, byte[] registrations, int index) {
+        final int previousOwner = doRegisterFile(owner, path);
+        final Registration registration;
+        final String previousOwnerId;
+        if (previousOwner == NOT_REGISTERED) {
+            // If the file is already in the current structure, rejects it with the current owner
+            registration = Registration.REFUSED;
+            previousOwnerId = owners.get(ownerColumn[allFiles.getId(path)] - 1);
+        } else if (previousOwner != NO_OWNER) {
+            // The file was registered by an owner ranked after this one
+            registration = Registration.SUPERSEDED;
+            previousOwnerId = owners.get(previousOwner - 1);
+        } else {
+            // Without the structure of the previous build, the file is assumed to belong to the same owner
+            previousOwnerId = cache != null ? cache.getOwner(path) : id;
+            // This is a new file
+            if (previousOwnerId == null) {
+                registration = Registration.REGISTERED;
+            } // The file already belonged to this owner
+            else if (previousOwnerId.equals(id)) {
+                registration = Registration.ALREADY_REGISTERED;
+            } // The file belongs to another owner and it's known currently
+            else if (ownerIndexes.containsKey(previousOwnerId)) {
+                registration = Registration.SUPERSEDED;
+            } // The file belongs to another owner and it's unknown
+            else {
+                registration = Registration.SUPERSEDED_UNKNOWN_OWNER;
+            }
+        }
+        registrations[index] = (byte) registration.ordinal();
+        return previousOwnerId;
+    }
+
     private void doRegister(String id, String path) {
-        getFullStructure().add(path);
-        getStructure(id).add(path);
+        doRegister(getOwnerIndex(id) + 1, path);
+    }
+
+    private void doRegister(int owner, String path) {
+        final int pathId = allFiles.addAndGetId(path);
+        if (pathId >= ownerColumn.length) {
+            ownerColumn = Arrays.copyOf(ownerColumn, Math.max(pathId + 1, ownerColumn.length * 2));
+        }
+        ownerColumn[pathId] = owner;
+    }
+
+    private int getOwnerIndex(String id) {
+        Integer index = ownerIndexes.get(id);
+        if (index == null) {
+            index = owners.size();
+            owners.add(id);
+            ownerIndexes.put(id, index);
+        }
+        return index;
     }
 
     private List<DependencyInfo> createDependenciesInfoList(List<Dependency> dependencies) {
@@ -252,13 +477,92 @@ public class WebappStructure {
         return result;
     }
 
-    private Object readResolve() {
-        // the full structure should be resolved so let's rebuild it
-        this.allFiles = new PathSet();
-        for (PathSet pathSet : registeredFiles.values()) {
-            this.allFiles.addAll(pathSet);
+    /**
+     * The result of the registration of a path, as reported to a {@link RegistrationCallback}.
+     *
+     * @since 3.5.2
+     */
+    public enum Registration {
+        /**
+         * The path was unknown and has been registered.
+         */
+        REGISTERED,
+
+        /**
+         * The path already belonged to the owner in the previous build and has been registered.
+         */
+        ALREADY_REGISTERED,
+
+        /**
+         * The path belongs to another owner, it has not been registered.
+         */
+        REFUSED,
+
+        /**
+         * The path belonged to another owner and has been registered.
+         */
+        SUPERSEDED,
+
+        /**
+         * The path belonged to an owner that does not exist anymore and has been registered.
+         */
+        SUPERSEDED_UNKNOWN_OWNER;
+
+        private static final Registration[] VALUES = values();
+
+        static Registration of(byte ordinal) {
+            return VALUES[ordinal];
+        }
+    }
+
+    /**
+     * The results of the registration of a set of paths for one owner, in the iteration order of the set. Each result
+     * is a byte and the previous owners are stored once.
+     *
+     * @since 3.5.2
+     */
+    public static final class Registrations {
+        private final byte[] registrations;
+
+        private final int[] previousOwners;
+
+        private final List<String> previousOwnerIds;
+
+        Registrations(byte[] registrations, int[] previousOwners, List<String> previousOwnerIds) {
+            this.registrations = registrations;
+            this.previousOwners = previousOwners;
+            this.previousOwnerIds = previousOwnerIds;
+        }
+
+        /**
+         * Returns the number of registered paths.
+         *
+         * @return the number of paths
+         */
+        public int size() {
+            return registrations.length;
+        }
+
+        /**
+         * Returns the result of the registration of the path at the specified index.
+         *
+         * @param index the index of the path
+         * @return the result of the registration
+         */
+        public Registration getRegistration(int index) {
+            return Registration.of(registrations[index]);
+        }
+
+        /**
+         * Returns the owner the path at the specified index was refused for or taken over from, that is the
+         * {@code actualOwnerId}, {@code deprecatedOwnerId} or {@code unknownOwnerId} of the corresponding callback.
+         *
+         * @param index the index of the path
+         * @return the previous owner, or {@code null} for a registered path
+         */
+        public String getPreviousOwner(int index) {
+            return previousOwnerIds.get(previousOwners[index]);
         }
-        return this;
     }
 
     /**
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes a {@link WebappStructure} as a compact binary snapshot, so that the next build knows which owner
+ * held which path.
+ *
+ * The owners are written once and each path refers to its owner by index. The dependencies are not written: the
+ * files of a removed dependency are paths of the snapshot that the next build does not register.
+ *
+ * @since 3.5.2
+ */
+public class WebappStructureSerializer {
+    private static final int MAGIC = 0x57415253;
+
+    private static final int VERSION = 2;
+
+    /**
+     * Reads the structure persisted in the specified file.
+     *
+     * @param file the file to read
+     * @return the structure, or {@code null} if the file does not exist
+     * @throws IOException if the file exists but could not be read
+     */
+    public WebappStructure fromFile(File file) throws IOException {
+        return new IndexFile(file, MAGIC, VERSION, "webapp structure").read(in -> {
+            final WebappStructure structure = new WebappStructure(null);
+            final String[] owners = new String[in.readInt()];
+            for (int i = 0; i < owners.length; i++) {
+                owners[i] = in.readUTF();
+                structure.getStructure(owners[i]);
+            }
+            final int pathCount = in.readInt();
+            for (int i = 0; i < pathCount; i++) {
+                final String path = in.readUTF();
+                structure.registerFile(owners[in.readInt()], path);
+            }
+            return structure;
+        });
+    }
+
+    /**
+     * Writes the specified structure to the specified file. The file is replaced once fully written.
+     *
+     * @param structure the structure to write
+     * @param file the file to write
+     * @throws IOException if the file could not be written
+     */
+    public void toFile(WebappStructure structure, File file) throws IOException {
+        new IndexFile(file, MAGIC, VERSION, "webapp structure").write(out -> {
+            final Map<String, Integer> owners = new HashMap<>();
+            out.writeInt(structure.getOwners().size());
+            for (String owner : structure.getOwners()) {
+                owners.put(owner, owners.size());
+                out.writeUTF(owner);
+            }
+            out.writeInt(structure.getFullStructure().size());
+            for (String path : structure.getFullStructure()) {
+                out.writeUTF(path);
+                out.writeInt(owners.get(structure.getOwner(path)));
+            }
+        });
+    }
+}
@@ -20,11 +20,35 @@ package org.apache.maven.plugins.war.packaging;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.plugins.war.util.EncodingCache;
+import org.apache.maven.plugins.war.util.FileCopier;
+import org.apache.maven.plugins.war.util.PackagingMatcher;
+import org.apache.maven.plugins.war.util.PathSet;
+import org.apache.maven.plugins.war.util.WebappStructure;
+import org.apache.maven.shared.filtering.DefaultMavenFileFilter;
+import org.apache.maven.shared.filtering.FilterWrapper;
+import org.apache.maven.shared.filtering.MavenFileFilter;
+import org.codehaus.plexus.util.IOUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
@@ -83,6 +107,211 @@ class AbstractWarPackagingTaskTest {
         assertTrue(destination.canWrite(), "copied file should be writable");
     }
 
+    @Test
+    void testCopyFilesWithCopyExecutor() throws IOException, MojoExecutionException {
+        File sourceDir = new File(tempDir, "source");
+        PathSet sources = new PathSet();
+        for (int i = 0; i < 100; i++) {
+            String path = "dir" + (i % 7) + "/file" + i + ".txt";
+            File source = new File(sourceDir, path);
+            source.getParentFile().mkdirs();
+            Files.write(source.toPath(), ("content " + i).getBytes(StandardCharsets.UTF_8));
+            sources.add(path);
+        }
+
+        File webappDir = new File(tempDir, "webapp");
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            TestWarPackagingContext context = new TestWarPackagingContext(webappDir) {
+                @Override
+                public ExecutorService getCopyExecutor() {
+                    return executor;
+                }
+            };
+            createTask().copyFiles("test", context, sourceDir, sources, false);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (String path : sources) {
+            File destination = new File(webappDir, path);
+            assertTrue(destination.isFile(), "missing " + path);
+            assertEquals(
+                    new String(Files.readAllBytes(new File(sourceDir, path).toPath()), StandardCharsets.UTF_8),
+                    new String(Files.readAllBytes(destination.toPath()), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testCopyFilesWithFilteringExecutor() throws IOException, MojoExecutionException {
+        File sourceDir = new File(tempDir, "source");
+        PathSet sources = new PathSet();
+        for (int i = 0; i < 100; i++) {
+            String path = "dir" + (i % 7) + "/file" + i + ".txt";
+            File source = new File(sourceDir, path);
+            source.getParentFile().mkdirs();
+            Files.write(source.toPath(), ("content " + i).getBytes(StandardCharsets.UTF_8));
+            sources.add(path);
+        }
+
+        File webappDir = new File(tempDir, "webapp");
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<FilterWrapper> filterWrappers = Collections.singletonList(new FilterWrapper() {
+            @Override
+            public Reader getReader(Reader fileReader) {
+                try {
+                    return new StringReader(IOUtil.toString(fileReader).toUpperCase(Locale.ROOT));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        try {
+            TestWarPackagingContext context = new TestWarPackagingContext(webappDir) {
+                @Override
+                public ExecutorService getFilteringExecutor() {
+                    return executor;
+                }
+
+                @Override
+                public MavenFileFilter getMavenFileFilter() {
+                    return new DefaultMavenFileFilter(new DefaultBuildContext());
+                }
+
+                @Override
+                public List<FilterWrapper> getFilterWrappers() {
+                    return filterWrappers;
+                }
+            };
+            createTask().copyFiles("test", context, sourceDir, sources, true);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (String path : sources) {
+            File destination = new File(webappDir, path);
+            assertTrue(destination.isFile(), "missing " + path);
+            assertEquals(
+                    new String(Files.readAllBytes(new File(sourceDir, path).toPath()), StandardCharsets.UTF_8)
+                            .toUpperCase(Locale.ROOT),
+                    new String(Files.readAllBytes(destination.toPath()), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testCopyFilesWithoutOptionalServices() throws IOException, MojoExecutionException {
+        File sourceDir = new File(tempDir, "source");
+        PathSet sources = new PathSet();
+        for (String path : new String[] {"index.jsp", "WEB-INF/web.xml", "WEB-INF/lib/test.jar"}) {
+            File source = new File(sourceDir, path);
+            source.getParentFile().mkdirs();
+            Files.write(source.toPath(), path.getBytes(StandardCharsets.UTF_8));
+            sources.add(path);
+        }
+
+        File webappDir = new File(tempDir, "webapp");
+        // a context implementing the methods that predate the optional services only
+        TestWarPackagingContext context = new TestWarPackagingContext(webappDir) {
+            @Override
+            public List<String> getPackagingExcludes() {
+                return Collections.singletonList("WEB-INF/lib/*.jar");
+            }
+
+            @Override
+            public boolean isNonFilteredExtension(String fileName) {
+                return !fileName.endsWith(".xml");
+            }
+
+            @Override
+            public MavenFileFilter getMavenFileFilter() {
+                return new DefaultMavenFileFilter(new DefaultBuildContext());
+            }
+
+            @Override
+            public List<FilterWrapper> getFilterWrappers() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public PackagingMatcher getPackagingMatcher() {
+                return null;
+            }
+
+            @Override
+            public FileCopier getFileCopier() {
+                return null;
+            }
+
+            @Override
+            public EncodingCache getEncodingCache() {
+                return null;
+            }
+        };
+        createTask().copyFiles("test", context, sourceDir, sources, true);
+
+        assertEquals("index.jsp", read(new File(webappDir, "index.jsp")));
+        assertEquals("WEB-INF/web.xml", read(new File(webappDir, "WEB-INF/web.xml")));
+        assertFalse(new File(webappDir, "WEB-INF/lib/test.jar").exists(), "excluded file should not be copied");
+    }
+
+    @Test
+    void testCopyFilesKeepsSourceOrder() throws IOException, MojoExecutionException {
+        File sourceDir = new File(tempDir, "source");
+        PathSet sources = new PathSet();
+        for (String path : new String[] {"a.txt", "b.xml", "c.txt", "d.txt", "e.xml", "f.txt"}) {
+            File source = new File(sourceDir, path);
+            source.getParentFile().mkdirs();
+            Files.write(source.toPath(), path.getBytes(StandardCharsets.UTF_8));
+            sources.add(path);
+        }
+
+        File webappDir = new File(tempDir, "webapp");
+        final WebappStructure structure = new WebappStructure(new ArrayList<>());
+        structure.registerFile("other", "d.txt");
+        final List<String> messages = new ArrayList<>();
+        TestWarPackagingContext context = new TestWarPackagingContext(webappDir) {
+            @Override
+            public Log getLog() {
+                return new SystemStreamLog() {
+                    @Override
+                    public void debug(CharSequence content) {
+                        messages.add(content.toString().substring(0, 7));
+                    }
+                };
+            }
+
+            @Override
+            public WebappStructure getWebappStructure() {
+                return structure;
+            }
+
+            @Override
+            public boolean isNonFilteredExtension(String fileName) {
+                return !fileName.endsWith(".xml");
+            }
+
+            @Override
+            public MavenFileFilter getMavenFileFilter() {
+                return new DefaultMavenFileFilter(new DefaultBuildContext());
+            }
+
+            @Override
+            public List<FilterWrapper> getFilterWrappers() {
+                return Collections.emptyList();
+            }
+        };
+        createTask().copyFiles("test", context, sourceDir, sources, true);
+
+        assertEquals(
+                Arrays.asList(" + a.tx", " + b.xm", " + c.tx", " - d.tx", " + e.xm", " + f.tx"),
+                messages,
+                "files should be registered in the order of the sources");
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
     private static AbstractWarPackagingTask createTask() {
         return new AbstractWarPackagingTask() {
             @Override
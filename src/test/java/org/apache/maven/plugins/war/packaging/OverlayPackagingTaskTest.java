@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.packaging;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.war.Overlay;
+import org.apache.maven.plugins.war.util.WebappStructure;
+import org.codehaus.plexus.archiver.manager.ArchiverManager;
+import org.codehaus.plexus.archiver.zip.ZipUnArchiver;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OverlayPackagingTaskTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void testStreamOverlay() throws IOException, MojoExecutionException {
+        Overlay overlay = createOverlay(
+                "META-INF/MANIFEST.MF", "index.jsp", "WEB-INF/web.xml", "images/logo.png", "images/icons/add.png");
+        overlay.setExcludes(new String[] {"META-INF/MANIFEST.MF", "images/icons/**"});
+        overlay.setTargetPath("app");
+        File webappDir = new File(tempDir, "webapp");
+        final WebappStructure structure = new WebappStructure(new ArrayList<>());
+        structure.registerFile("other", "app/index.jsp");
+
+        new OverlayPackagingTask(overlay, null).performPackaging(createContext(webappDir, structure, true, null));
+
+        assertEquals("WEB-INF/web.xml", read(new File(webappDir, "app/WEB-INF/web.xml")));
+        assertEquals("images/logo.png", read(new File(webappDir, "app/images/logo.png")));
+        assertFalse(new File(webappDir, "app/index.jsp").exists(), "refused entry should not be extracted");
+        assertFalse(new File(webappDir, "app/META-INF/MANIFEST.MF").exists(), "excluded entry should be skipped");
+        assertFalse(new File(webappDir, "app/images/icons").exists(), "excluded entry should be skipped");
+        assertFalse(new File(tempDir, "work").exists(), "overlay should not be unpacked");
+        assertEquals(overlay.getId(), structure.getOwner("app/WEB-INF/web.xml"));
+    }
+
+    @Test
+    void testStreamOverlayRejectsEntryOutsideOfWebapp() throws IOException {
+        Overlay overlay = createOverlay("index.jsp", "../evil.jsp");
+        File webappDir = new File(tempDir, "webapp");
+
+        OverlayPackagingTask task = new OverlayPackagingTask(overlay, null);
+        WarPackagingContext context = createContext(webappDir, new WebappStructure(new ArrayList<>()), true, null);
+
+        assertThrows(MojoExecutionException.class, () -> task.performPackaging(context));
+        assertFalse(new File(tempDir, "evil.jsp").exists());
+    }
+
+    @Test
+    void testUnpackAheadOfMerge() throws IOException, MojoExecutionException {
+        Overlay overlay = createOverlay("index.jsp");
+        final File unpackDir = new File(tempDir, "unpacked");
+        Files.createDirectories(unpackDir.toPath());
+        Files.write(new File(unpackDir, "index.jsp").toPath(), "index.jsp".getBytes(StandardCharsets.UTF_8));
+        File webappDir = new File(tempDir, "webapp");
+        final List<String> unpackThreads = Collections.synchronizedList(new ArrayList<>());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            WarPackagingContext context =
+                    createContext(webappDir, new WebappStructure(new ArrayList<>()), false, executor);
+            OverlayPackagingTask task = new OverlayPackagingTask(overlay, null) {
+                @Override
+                protected File unpackOverlay(WarPackagingContext context, Overlay overlay) {
+                    unpackThreads.add(Thread.currentThread().getName());
+                    return unpackDir;
+                }
+            };
+            task.startUnpack(context);
+            task.performPackaging(context);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, unpackThreads.size());
+        assertNotEquals(Thread.currentThread().getName(), unpackThreads.get(0));
+        assertEquals("index.jsp", read(new File(webappDir, "index.jsp")));
+    }
+
+    @Test
+    void testSelectiveUnpack() throws Exception {
+        Overlay overlay = createOverlay("index.jsp", "WEB-INF/web.xml", "WEB-INF/jsp/page.jsp", "WEB-INF/jsp/a/b.jsp");
+        overlay.setIncludes("WEB-INF/jsp/**");
+        final ArchiverManager archiverManager = mock(ArchiverManager.class);
+        when(archiverManager.getUnArchiver("war")).thenReturn(new ZipUnArchiver());
+        WarPackagingContext context = createContext(archiverManager);
+        OverlayPackagingTask task = new OverlayPackagingTask(overlay, null);
+
+        File unpackDir = task.unpackOverlay(context, overlay);
+        assertEquals(new File(new File(tempDir, "work"), "org.test"), unpackDir.getParentFile());
+        assertNotEquals("overlay", unpackDir.getName(), "selective unpack should use a directory of its own");
+        assertTrue(new File(unpackDir, "WEB-INF/jsp/page.jsp").isFile());
+        assertTrue(new File(unpackDir, "WEB-INF/jsp/a/b.jsp").isFile());
+        assertFalse(new File(unpackDir, "index.jsp").exists());
+        assertFalse(new File(unpackDir, "WEB-INF/web.xml").exists());
+
+        assertEquals(unpackDir, task.unpackOverlay(context, overlay));
+        verify(archiverManager, times(1)).getUnArchiver("war");
+    }
+
+    @Test
+    void testUnpackAgainDeletedDirectory() throws Exception {
+        Overlay overlay = createOverlay("index.jsp", "WEB-INF/web.xml");
+        final ArchiverManager archiverManager = mock(ArchiverManager.class);
+        when(archiverManager.getUnArchiver("war")).thenReturn(new ZipUnArchiver(), new ZipUnArchiver());
+        WarPackagingContext context = createContext(archiverManager);
+        OverlayPackagingTask task = new OverlayPackagingTask(overlay, null);
+        File unpackDir = task.unpackOverlay(context, overlay);
+        assertTrue(new File(unpackDir, "index.jsp").isFile());
+
+        FileUtils.deleteDirectory(unpackDir);
+        assertEquals(unpackDir, task.unpackOverlay(context, overlay));
+
+        assertTrue(new File(unpackDir, "index.jsp").isFile());
+        assertTrue(new File(unpackDir, "WEB-INF/web.xml").isFile());
+        verify(archiverManager, times(2)).getUnArchiver("war");
+    }
+
+    @Test
+    void testUnpackOnceEmptyExtraction() throws Exception {
+        Overlay overlay = createOverlay("index.jsp", "WEB-INF/web.xml");
+        overlay.setIncludes("WEB-INF/jsp/**");
+        final ArchiverManager archiverManager = mock(ArchiverManager.class);
+        when(archiverManager.getUnArchiver("war")).thenAnswer(invocation -> new ZipUnArchiver());
+        WarPackagingContext context = createContext(archiverManager);
+        OverlayPackagingTask task = new OverlayPackagingTask(overlay, null);
+
+        File unpackDir = task.unpackOverlay(context, overlay);
+        assertEquals(0, unpackDir.list().length);
+        assertEquals(unpackDir, task.unpackOverlay(context, overlay));
+        verify(archiverManager, times(1)).getUnArchiver("war");
+    }
+
+    @Test
+    void testMergeOverlaysUnpackedInParallel() throws Exception {
+        Overlay first = createArtifactOverlay("first", "index.jsp", "first.jsp");
+        Overlay second = createArtifactOverlay("second", "index.jsp", "second.jsp");
+        Overlay secondCopy = createArtifactOverlay("second", "index.jsp", "second.jsp");
+        secondCopy.setTargetPath("copy");
+        Overlay third = createArtifactOverlay("third", "index.jsp", "first.jsp", "third.jsp");
+        final ArchiverManager archiverManager = mock(ArchiverManager.class);
+        when(archiverManager.getUnArchiver("war")).thenAnswer(invocation -> new ZipUnArchiver());
+        File webappDir = new File(tempDir, "webapp");
+        final WebappStructure structure = new WebappStructure(new ArrayList<>());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            WarPackagingContext context = createContext(webappDir, structure, false, executor, archiverManager);
+            List<OverlayPackagingTask> tasks = new ArrayList<>();
+            for (Overlay overlay : Arrays.asList(first, second, secondCopy, third)) {
+                tasks.add(new OverlayPackagingTask(overlay, null));
+            }
+            for (OverlayPackagingTask task : tasks) {
+                task.startUnpack(context);
+            }
+            for (OverlayPackagingTask task : tasks) {
+                task.performPackaging(context);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // the overlays sharing an unpack directory are unpacked once
+        verify(archiverManager, times(3)).getUnArchiver("war");
+        // the first overlay providing a file wins, whatever the order the overlays were unpacked in
+        assertEquals(first.getId(), structure.getOwner("index.jsp"));
+        assertEquals(first.getId(), structure.getOwner("first.jsp"));
+        assertEquals(second.getId(), structure.getOwner("second.jsp"));
+        assertEquals(second.getId(), structure.getOwner("copy/index.jsp"));
+        assertEquals(second.getId(), structure.getOwner("copy/second.jsp"));
+        assertEquals(third.getId(), structure.getOwner("third.jsp"));
+        assertEquals("index.jsp", read(new File(webappDir, "copy/index.jsp")));
+        assertEquals("third.jsp", read(new File(webappDir, "third.jsp")));
+    }
+
+    private Overlay createOverlay(String... entries) throws IOException {
+        return createArtifactOverlay("overlay", entries);
+    }
+
+    private Overlay createArtifactOverlay(String artifactId, String... entries) throws IOException {
+        File archive = new File(tempDir, artifactId + ".war");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                out.write(entry.getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        DefaultArtifact artifact = new DefaultArtifact(
+                "org.test", artifactId, "1.0", "compile", "war", null, new DefaultArtifactHandler());
+        artifact.setFile(archive);
+        Overlay overlay = new Overlay("org.test", artifactId);
+        overlay.setArtifact(artifact);
+        return overlay;
+    }
+
+    private WarPackagingContext createContext(ArchiverManager archiverManager) {
+        return createContext(
+                new File(tempDir, "webapp"), new WebappStructure(new ArrayList<>()), false, null, archiverManager);
+    }
+
+    private WarPackagingContext createContext(
+            File webappDir,
+            final WebappStructure structure,
+            final boolean streamOverlays,
+            final ExecutorService unpackExecutor) {
+        return createContext(webappDir, structure, streamOverlays, unpackExecutor, null);
+    }
+
+    private WarPackagingContext createContext(
+            File webappDir,
+            final WebappStructure structure,
+            final boolean streamOverlays,
+            final ExecutorService unpackExecutor,
+            final ArchiverManager archiverManager) {
+        return new TestWarPackagingContext(webappDir) {
+            @Override
+            public WebappStructure getWebappStructure() {
+                return structure;
+            }
+
+            @Override
+            public File getOverlaysWorkDirectory() {
+                return new File(tempDir, "work");
+            }
+
+            @Override
+            public boolean isStreamOverlays() {
+                return streamOverlays;
+            }
+
+            @Override
+            public ExecutorService getUnpackExecutor() {
+                return unpackExecutor;
+            }
+
+            @Override
+            public ArchiverManager getArchiverManager() {
+                return archiverManager;
+            }
+        };
+    }
+
+    private static String read(File file) throws IOException {
+        assertTrue(file.isFile(), "missing " + file);
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
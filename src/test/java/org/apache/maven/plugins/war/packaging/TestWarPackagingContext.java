@@ -22,11 +22,21 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.maven.archiver.MavenArchiveConfiguration;
 import org.apache.maven.artifact.handler.manager.ArtifactHandlerManager;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.war.util.DigestIndex;
+import org.apache.maven.plugins.war.util.EncodingCache;
+import org.apache.maven.plugins.war.util.FileCopier;
+import org.apache.maven.plugins.war.util.FileLinker;
+import org.apache.maven.plugins.war.util.FilteredFileCache;
+import org.apache.maven.plugins.war.util.PackagingMatcher;
+import org.apache.maven.plugins.war.util.TokenScanner;
 import org.apache.maven.plugins.war.util.WebappStructure;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.filtering.FilterWrapper;
@@ -38,6 +48,12 @@ class TestWarPackagingContext implements WarPackagingContext {
 
     private final File webappDir;
 
+    private final FileCopier fileCopier = new FileCopier();
+
+    private final EncodingCache encodingCache = new EncodingCache(null);
+
+    private final ConcurrentMap<File, Object> unpackLocks = new ConcurrentHashMap<>();
+
     TestWarPackagingContext(File webappDir) {
         this.webappDir = webappDir;
     }
@@ -232,4 +248,69 @@ class TestWarPackagingContext implements WarPackagingContext {
     public List<String> getPackagingIncludes() {
         return Collections.singletonList("**/**");
     }
+
+    @Override
+    public PackagingMatcher getPackagingMatcher() {
+        return new PackagingMatcher(new String[] {"**/**"}, new String[0]);
+    }
+
+    @Override
+    public ExecutorService getCopyExecutor() {
+        return null;
+    }
+
+    @Override
+    public FileLinker getArtifactLinker() {
+        return null;
+    }
+
+    @Override
+    public DigestIndex getDigestIndex() {
+        return null;
+    }
+
+    @Override
+    public FileCopier getFileCopier() {
+        return fileCopier;
+    }
+
+    @Override
+    public FilteredFileCache getFilteredFileCache() {
+        return null;
+    }
+
+    @Override
+    public EncodingCache getEncodingCache() {
+        return encodingCache;
+    }
+
+    @Override
+    public TokenScanner getTokenScanner() {
+        return null;
+    }
+
+    @Override
+    public ExecutorService getFilteringExecutor() {
+        return null;
+    }
+
+    @Override
+    public int getScanForkThreshold() {
+        return 0;
+    }
+
+    @Override
+    public boolean isStreamOverlays() {
+        return false;
+    }
+
+    @Override
+    public ExecutorService getUnpackExecutor() {
+        return null;
+    }
+
+    @Override
+    public Object getUnpackLock(File unpackDirectory) {
+        return unpackLocks.computeIfAbsent(unpackDirectory.getAbsoluteFile(), directory -> new Object());
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DigestIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSameContentWithDifferentTimestamps() throws IOException {
+        Path source = write("source.txt", "content", 2000L);
+        Path target = write("target.txt", "content", 1000L);
+
+        DigestIndex index = new DigestIndex(tempDir.resolve("index").toFile());
+        assertTrue(index.hasSameContent(source, attributes(source), target));
+    }
+
+    @Test
+    void testDifferentContent() throws IOException {
+        Path source = write("source.txt", "content", 2000L);
+        Path target = write("target.txt", "CONTENT", 2000L);
+
+        DigestIndex index = new DigestIndex(tempDir.resolve("index").toFile());
+        assertFalse(index.hasSameContent(source, attributes(source), target));
+        assertFalse(index.hasSameContent(source, attributes(source), tempDir.resolve("missing.txt")));
+    }
+
+    @Test
+    void testSaveAndLoad() throws IOException {
+        File indexFile = tempDir.resolve("work/index").toFile();
+        Path source = write("source.txt", "content", 2000L);
+        Path target = write("target.txt", "content", 1000L);
+
+        DigestIndex index = new DigestIndex(indexFile);
+        assertTrue(index.hasSameContent(source, attributes(source), target));
+        index.save();
+
+        DigestIndex reloaded = new DigestIndex(indexFile);
+        reloaded.load();
+        assertTrue(reloaded.hasSameContent(source, attributes(source), target));
+
+        // a modified target is read again
+        write("target.txt", "changed", 3000L);
+        assertFalse(reloaded.hasSameContent(source, attributes(source), target));
+    }
+
+    private Path write(String name, String content, long lastModified) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+        return file;
+    }
+
+    private static BasicFileAttributes attributes(Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.input.XmlStreamReader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EncodingCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDetectEncoding() throws IOException {
+        File utf8 = write("web.xml", "<web-app/>", 1000L);
+        File latin1 = write("context.xml", "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><Context/>", 1000L);
+
+        EncodingCache cache = new EncodingCache(null);
+        assertEquals("UTF-8", cache.getEncoding(utf8, EncodingCacheTest::detect));
+        assertEquals("ISO-8859-1", cache.getEncoding(latin1, EncodingCacheTest::detect));
+        cache.save();
+    }
+
+    @Test
+    void testSaveAndLoad() throws IOException {
+        File indexFile = tempDir.resolve("work/encodings.idx").toFile();
+        File xml = write("context.xml", "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><Context/>", 1000L);
+
+        EncodingCache cache = new EncodingCache(indexFile);
+        assertEquals("ISO-8859-1", cache.getEncoding(xml, EncodingCacheTest::detect));
+        cache.save();
+
+        EncodingCache reloaded = new EncodingCache(indexFile);
+        reloaded.load();
+        assertEquals("ISO-8859-1", reloaded.getEncoding(xml, EncodingCacheTest::detect));
+
+        // a modified file is read again
+        Files.write(xml.toPath(), "<?xml version=\"1.0\" encoding=\"UTF-16BE\"?><Context/>".getBytes("UTF-16BE"));
+        Files.setLastModifiedTime(xml.toPath(), FileTime.fromMillis(2000L));
+        assertEquals("UTF-16BE", reloaded.getEncoding(xml, EncodingCacheTest::detect));
+    }
+
+    @Test
+    void testDetectOnlyChangedFiles() throws IOException {
+        File xml = write("web.xml", "<web-app/>", 1000L);
+        List<File> detected = new ArrayList<>();
+        EncodingCache.Detector detector = file -> {
+            detected.add(file);
+            return "UTF-8";
+        };
+
+        EncodingCache cache = new EncodingCache(null);
+        assertEquals("UTF-8", cache.getEncoding(xml, detector));
+        assertEquals("UTF-8", cache.getEncoding(xml, detector));
+        assertEquals(Collections.singletonList(xml), detected);
+
+        Files.setLastModifiedTime(xml.toPath(), FileTime.fromMillis(2000L));
+        assertEquals("UTF-8", cache.getEncoding(xml, detector));
+        assertEquals(Arrays.asList(xml, xml), detected);
+    }
+
+    private static String detect(File file) throws IOException {
+        try (XmlStreamReader xmlReader = XmlStreamReader.builder().setFile(file).get()) {
+            return xmlReader.getEncoding();
+        }
+    }
+
+    private File write(String name, String content, long lastModified) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+        return file.toFile();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FileCopierTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCopySmallAndLargeFiles() throws IOException {
+        byte[] small = randomBytes(100);
+        byte[] large = randomBytes(FileCopier.BUFFER_SIZE * 3 + 17);
+        Path smallSource = Files.write(tempDir.resolve("small.txt"), small);
+        Path largeSource = Files.write(tempDir.resolve("large.bin"), large);
+
+        FileCopier copier = new FileCopier();
+        Path smallTarget = tempDir.resolve("webapp/small.txt");
+        Path largeTarget = tempDir.resolve("webapp/WEB-INF/lib/large.bin");
+        copier.copy(smallSource, smallTarget, small.length);
+        copier.copy(largeSource, largeTarget, large.length);
+
+        assertArrayEquals(small, Files.readAllBytes(smallTarget));
+        assertArrayEquals(large, Files.readAllBytes(largeTarget));
+        assertEquals(1, copier.getBufferedFiles());
+        assertEquals(small.length, copier.getBufferedBytes());
+        assertEquals(1, copier.getTransferredFiles());
+        assertEquals(large.length, copier.getTransferredBytes());
+    }
+
+    @Test
+    void testCopyReplacesExistingFile() throws IOException {
+        byte[] content = randomBytes(10);
+        Path source = Files.write(tempDir.resolve("source.txt"), content);
+        Path target = Files.write(tempDir.resolve("target.txt"), randomBytes(1000));
+
+        new FileCopier().copy(source, target, content.length);
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    @Test
+    void testCopyFileOntoItself() throws IOException {
+        byte[] content = randomBytes(10);
+        Path source = Files.write(tempDir.resolve("source.txt"), content);
+
+        assertFalse(new FileCopier().copy(source, tempDir.resolve("./source.txt"), content.length));
+
+        assertArrayEquals(content, Files.readAllBytes(source));
+    }
+
+    @Test
+    void testApplyAttributes() throws IOException {
+        byte[] content = randomBytes(10);
+        Path source = Files.write(tempDir.resolve("source.txt"), content);
+        FileCopier copier = new FileCopier();
+        Path first = tempDir.resolve("webapp/first.txt");
+        copier.copy(source, first, content.length);
+        // files created with unusual permissions are normalized
+        assumeTrue(Files.getFileStore(first).supportsFileAttributeView("posix"), "POSIX attributes are not supported");
+        Files.setPosixFilePermissions(first, PosixFilePermissions.fromString("rwx------"));
+
+        assertTrue(copier.applyAttributes(first, FileTime.fromMillis(1000L)));
+        assertEquals(1000L, Files.getLastModifiedTime(first).toMillis());
+        assertEquals("rw-r--r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(first)));
+
+        Path second = tempDir.resolve("webapp/second.txt");
+        copier.copy(source, second, content.length);
+        Files.setPosixFilePermissions(second, PosixFilePermissions.fromString("rwx------"));
+        assertTrue(copier.applyAttributes(second, FileTime.fromMillis(2000L)));
+        assertEquals(2000L, Files.getLastModifiedTime(second).toMillis());
+        assertEquals("rw-r--r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(second)));
+    }
+
+    @Test
+    void testApplyAttributesChecksEachFile() throws IOException {
+        byte[] content = randomBytes(10);
+        Path source = Files.write(tempDir.resolve("source.txt"), content);
+        FileCopier copier = new FileCopier();
+        Path first = tempDir.resolve("webapp/first.txt");
+        copier.copy(source, first, content.length);
+        assumeTrue(Files.getFileStore(first).supportsFileAttributeView("posix"), "POSIX attributes are not supported");
+        // a file already created with the normalized permissions must not stop the next ones from being normalized
+        Files.setPosixFilePermissions(first, PosixFilePermissions.fromString("rw-r--r--"));
+        assertTrue(copier.applyAttributes(first, FileTime.fromMillis(1000L)));
+        assertEquals("rw-r--r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(first)));
+
+        Path second = tempDir.resolve("webapp/second.txt");
+        copier.copy(source, second, content.length);
+        Files.setPosixFilePermissions(second, PosixFilePermissions.fromString("rwx------"));
+        assertTrue(copier.applyAttributes(second, FileTime.fromMillis(2000L)));
+        assertEquals("rw-r--r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(second)));
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FileLinkerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLinkReplacesExistingFile() throws IOException {
+        Path source = tempDir.resolve("repository/lib-1.0.jar");
+        Files.createDirectories(source.getParent());
+        Files.write(source, "jar content".getBytes(StandardCharsets.UTF_8));
+        Path target = tempDir.resolve("webapp/WEB-INF/lib/lib-1.0.jar");
+        Files.createDirectories(target.getParent());
+        Files.write(target, "stale content".getBytes(StandardCharsets.UTF_8));
+
+        boolean linked = new FileLinker().link(source, target);
+        assumeTrue(linked, "hard links are not supported by the file system");
+
+        assertTrue(Files.isSameFile(source, target));
+        assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(target));
+    }
+
+    @Test
+    void testLinkTwiceKeepsLink() throws IOException {
+        Path source = tempDir.resolve("lib-1.0.jar");
+        Files.write(source, "jar content".getBytes(StandardCharsets.UTF_8));
+        Path target = tempDir.resolve("webapp/WEB-INF/lib/lib-1.0.jar");
+
+        FileLinker linker = new FileLinker();
+        assumeTrue(linker.link(source, target), "hard links are not supported by the file system");
+        assertTrue(linker.link(source, target));
+        assertTrue(Files.isSameFile(source, target));
+    }
+}
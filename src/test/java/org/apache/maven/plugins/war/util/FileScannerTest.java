@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FileScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void createTree() throws IOException {
+        for (String path : new String[] {
+            "index.jsp",
+            "readme.txt",
+            "css/style.css",
+            "css/print.css",
+            "images/logo.png",
+            "images/icons/add.png",
+            "images/icons/remove.gif",
+            "WEB-INF/web.xml",
+            "WEB-INF/jsp/page.jsp",
+            "WEB-INF/jsp/page.jsp~",
+            "WEB-INF/lib/a.jar",
+            "WEB-INF/classes/org/Foo.class",
+            ".git/config",
+            ".git/objects/ab/cdef",
+            "sub/.svn/entries",
+            "sub/CVS/Root",
+            "sub/deep/nested/file.jsp",
+        }) {
+            Path file = tempDir.resolve(path);
+            Files.createDirectories(file.getParent());
+            Files.write(file, path.getBytes("UTF-8"));
+        }
+        Files.createDirectories(tempDir.resolve("empty/dir"));
+    }
+
+    @Test
+    void testMatchesDirectoryScanner() {
+        assertSameAsDirectoryScanner(new String[] {"**"}, null, true);
+        assertSameAsDirectoryScanner(new String[] {"**"}, null, false);
+        assertSameAsDirectoryScanner(new String[] {"**/*.jsp"}, null, true);
+        assertSameAsDirectoryScanner(new String[] {"*.jsp", "css/"}, new String[] {"**/print*"}, true);
+        assertSameAsDirectoryScanner(new String[] {"images/**/*.png"}, null, true);
+        assertSameAsDirectoryScanner(new String[] {"**/jsp/**", "WEB-INF\\lib\\*.jar"}, null, true);
+        assertSameAsDirectoryScanner(new String[] {"**"}, new String[] {"WEB-INF/**", "images/icons/"}, true);
+        assertSameAsDirectoryScanner(new String[] {"**/i?ons/*"}, new String[] {"**/*.gif"}, true);
+        assertSameAsDirectoryScanner(new String[] {"sub/**/**/*.jsp", "/index.jsp", "/WEB-INF/web.xml"}, null, true);
+        assertSameAsDirectoryScanner(new String[] {"%regex[.*\\.(css|xml)]"}, new String[] {"%regex[WEB-INF.*]"}, true);
+        assertSameAsDirectoryScanner(new String[] {"**"}, new String[] {"**"}, true);
+    }
+
+    @Test
+    void testPathsAreNormalized() {
+        PathSet files = new FileScanner(new String[] {"images/**"}, null, true).scan(tempDir.toFile());
+
+        assertEquals(
+                new HashSet<>(Arrays.asList("images/logo.png", "images/icons/add.png", "images/icons/remove.gif")),
+                new HashSet<>(files.paths()));
+    }
+
+    @Test
+    void testParallelScanKeepsOrder() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            Path file = tempDir.resolve("many/dir" + i + "/sub/file" + i + ".txt");
+            Files.createDirectories(file.getParent());
+            Files.write(file, new byte[i]);
+        }
+        String[] excludes = {"**/print*"};
+
+        PathSet files = new PathSet();
+        PathSet directories = new PathSet();
+        new FileScanner(null, excludes, true).scan(tempDir.toFile(), files, directories);
+        PathSet parallelFiles = new PathSet();
+        PathSet parallelDirectories = new PathSet();
+        FileScanner parallel = new FileScanner(null, excludes, true);
+        parallel.setForkThreshold(1);
+        parallel.scan(tempDir.toFile(), parallelFiles, parallelDirectories);
+
+        assertEquals(new ArrayList<>(files.paths()), new ArrayList<>(parallelFiles.paths()));
+        assertEquals(new ArrayList<>(directories.paths()), new ArrayList<>(parallelDirectories.paths()));
+    }
+
+    @Test
+    void testParallelScanStopsAtSymbolicLinkLoop() throws IOException {
+        Path link = tempDir.resolve("sub/deep/loop");
+        try {
+            Files.createSymbolicLink(link, tempDir.resolve("sub"));
+        } catch (IOException | UnsupportedOperationException e) {
+            assumeTrue(false, "symbolic links are not supported");
+        }
+
+        FileScanner parallel = new FileScanner(null, null, false);
+        parallel.setForkThreshold(1);
+        PathSet files = new PathSet();
+        parallel.scan(tempDir.toFile(), files, null);
+
+        assertEquals(
+                new HashSet<>(new FileScanner(null, null, false).scan(tempDir.toFile()).paths()),
+                new HashSet<>(files.paths()));
+        assertTrue(files.contains("sub/deep/nested/file.jsp"));
+        assertFalse(files.contains("sub/deep/loop/deep/nested/file.jsp"));
+    }
+
+    @Test
+    void testLoopDetectionWithoutFileKeys() throws IOException {
+        Path link = tempDir.resolve("sub/deep/loop");
+        try {
+            Files.createSymbolicLink(link, tempDir.resolve("sub"));
+        } catch (IOException | UnsupportedOperationException e) {
+            assumeTrue(false, "symbolic links are not supported");
+        }
+        FileScanner.Ancestor ancestors = new FileScanner.Ancestor(
+                tempDir.resolve("sub/deep"),
+                null,
+                new FileScanner.Ancestor(
+                        tempDir.resolve("sub"), null, new FileScanner.Ancestor(tempDir, null, null)));
+
+        assertTrue(ancestors.contains(link, null));
+        assertFalse(ancestors.contains(tempDir.resolve("sub/deep/nested"), null));
+    }
+
+    @Test
+    void testMissingBaseDirectory() {
+        FileScanner scanner = new FileScanner(null, null, true);
+        File missing = tempDir.resolve("missing").toFile();
+
+        assertThrows(IllegalStateException.class, () -> scanner.scan(missing));
+    }
+
+    private void assertSameAsDirectoryScanner(String[] includes, String[] excludes, boolean defaultExcludes) {
+        DirectoryScanner expected = new DirectoryScanner();
+        expected.setBasedir(tempDir.toFile());
+        expected.setIncludes(includes);
+        expected.setExcludes(excludes);
+        if (defaultExcludes) {
+            expected.addDefaultExcludes();
+        }
+        expected.scan();
+
+        PathSet files = new PathSet();
+        PathSet directories = new PathSet();
+        new FileScanner(includes, excludes, defaultExcludes).scan(tempDir.toFile(), files, directories);
+
+        String message = Arrays.toString(includes) + " - " + Arrays.toString(excludes);
+        assertEquals(toSet(expected.getIncludedFiles()), new HashSet<>(files.paths()), message);
+        assertEquals(toSet(expected.getIncludedDirectories()), new HashSet<>(directories.paths()), message);
+
+        FileScanner scanner = new FileScanner(includes, excludes, defaultExcludes);
+        for (String path : new FileScanner(null, null, false).scan(tempDir.toFile()).paths()) {
+            assertEquals(files.contains(path), scanner.isIncluded(path), message + " - " + path);
+        }
+
+        FileScanner parallel = new FileScanner(includes, excludes, defaultExcludes);
+        parallel.setForkThreshold(1);
+        PathSet parallelFiles = new PathSet();
+        PathSet parallelDirectories = new PathSet();
+        parallel.scan(tempDir.toFile(), parallelFiles, parallelDirectories);
+        assertEquals(new ArrayList<>(files.paths()), new ArrayList<>(parallelFiles.paths()), message);
+        assertEquals(new ArrayList<>(directories.paths()), new ArrayList<>(parallelDirectories.paths()), message);
+    }
+
+    private static Set<String> toSet(String[] paths) {
+        return new HashSet<>(new PathSet(paths).paths());
+    }
+}
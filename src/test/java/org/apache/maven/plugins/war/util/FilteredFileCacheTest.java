@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.shared.filtering.FilterWrapper;
+import org.codehaus.plexus.util.IOUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FilteredFileCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Map<String, String> properties = new HashMap<>();
+
+    // a naive filter resolving the complete expressions only
+    private final List<FilterWrapper> filterWrappers = Collections.singletonList(new FilterWrapper() {
+        @Override
+        public Reader getReader(Reader fileReader) {
+            try {
+                String expression = IOUtil.toString(fileReader);
+                String key = expression.startsWith("${")
+                        ? expression.substring(2, expression.length() - 1)
+                        : expression.substring(1, expression.length() - 1);
+                return new StringReader(properties.getOrDefault(key, expression));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    });
+
+    @Test
+    void testEntryDependsOnReferencedExpressionsOnly() throws IOException {
+        File source = write("source.txt", "${foo} and @bar@");
+        properties.put("foo", "1");
+        properties.put("bar", "2");
+        properties.put("baz", "3");
+
+        FilteredFileCache cache = createCache("settings");
+        File entry = cache.getEntry(source, "UTF-8", filterWrappers);
+        assertFalse(entry.exists());
+        assertNotEquals(entry, cache.getEntry(source, "ISO-8859-1", filterWrappers));
+
+        // an unreferenced property does not change the entry
+        properties.put("baz", "4");
+        assertEquals(entry, createCache("settings").getEntry(source, "UTF-8", filterWrappers));
+
+        properties.put("bar", "5");
+        assertNotEquals(entry, createCache("settings").getEntry(source, "UTF-8", filterWrappers));
+        assertNotEquals(entry, createCache("other settings").getEntry(source, "UTF-8", filterWrappers));
+    }
+
+    @Test
+    void testSourceWithoutExpression() throws IOException {
+        File source = write("source.txt", "no expression, not even an email@example.com\n@ the end");
+
+        assertEquals(source, createCache("settings").getEntry(source, "UTF-8", filterWrappers));
+    }
+
+    @Test
+    void testExpressionsArePersisted() throws IOException {
+        File source = write("source.txt", "${foo}");
+        properties.put("foo", "1");
+
+        FilteredFileCache cache = createCache("settings");
+        File entry = cache.getEntry(source, "UTF-8", filterWrappers);
+        cache.save();
+
+        FilteredFileCache next = createCache("settings");
+        next.load();
+        assertEquals(entry, next.getEntry(source, "UTF-8", filterWrappers));
+
+        write("source.txt", "${foo} changed");
+        assertNotEquals(entry, next.getEntry(source, "UTF-8", filterWrappers));
+    }
+
+    @Test
+    void testStoreAndPrune() throws IOException {
+        File first = write("first.txt", "${foo}");
+        File second = write("second.txt", "${bar}");
+        properties.put("foo", "1");
+
+        FilteredFileCache cache = createCache("settings");
+        File firstEntry = cache.getEntry(first, null, filterWrappers);
+        cache.store(write("first-filtered.txt", "1"), firstEntry);
+        File secondEntry = cache.getEntry(second, null, filterWrappers);
+        cache.store(write("second-filtered.txt", "${bar}"), secondEntry);
+        cache.save();
+        assertEquals("1", new String(Files.readAllBytes(firstEntry.toPath()), StandardCharsets.UTF_8));
+
+        // the next build only uses the first file
+        FilteredFileCache next = createCache("settings");
+        assertEquals(firstEntry, next.getEntry(first, null, filterWrappers));
+        next.prune();
+        assertTrue(firstEntry.isFile());
+        assertFalse(secondEntry.exists());
+        assertTrue(tempDir.resolve("filtered-resources.idx").toFile().isFile());
+    }
+
+    private FilteredFileCache createCache(String settings) {
+        return new FilteredFileCache(
+                tempDir.resolve("cache").toFile(),
+                tempDir.resolve("filtered-resources.idx").toFile(),
+                new FilteredFileCache.Key().add("settings", settings).toDigest(),
+                Arrays.asList("${*}", "@"),
+                false);
+    }
+
+    private File write(String name, String content) throws IOException {
+        return Files.write(tempDir.resolve(name), content.getBytes(StandardCharsets.UTF_8))
+                .toFile();
+    }
+}
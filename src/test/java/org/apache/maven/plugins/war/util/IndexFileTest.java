@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IndexFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        File file = tempDir.resolve("work/test.idx").toFile();
+        IndexFile indexFile = new IndexFile(file, 0x57415254, 1, "test index");
+        assertNull(indexFile.read(DataInput::readUTF));
+
+        indexFile.write(out -> out.writeUTF("content"));
+        assertEquals("content", indexFile.read(DataInput::readUTF));
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    void testRejectOtherHeader() throws IOException {
+        File file = tempDir.resolve("test.idx").toFile();
+        new IndexFile(file, 0x57415254, 1, "test index").write(out -> out.writeUTF("content"));
+
+        IndexFile otherVersion = new IndexFile(file, 0x57415254, 2, "test index");
+        IOException e = assertThrows(IOException.class, () -> otherVersion.read(DataInput::readUTF));
+        assertEquals("Unsupported test index format " + file, e.getMessage());
+    }
+
+    @Test
+    void testEntries() throws IOException {
+        Path source = Files.write(tempDir.resolve("source.txt"), new byte[] {1, 2, 3});
+        Files.setLastModifiedTime(source, FileTime.fromMillis(1000L));
+        AtomicInteger loads = new AtomicInteger();
+
+        IndexFile.Entries<String> entries = new IndexFile.Entries<>();
+        assertEquals("first", entries.get("source", attributes(source), () -> {
+            loads.incrementAndGet();
+            return "first";
+        }));
+        assertEquals("first", entries.get("source", attributes(source), () -> "second"));
+        assertEquals("first", entries.getCurrent("source", attributes(source)));
+
+        IndexFile indexFile = new IndexFile(tempDir.resolve("test.idx").toFile(), 0x57415254, 1, "test index");
+        indexFile.write(out -> entries.write(out, DataOutputStream::writeUTF));
+        IndexFile.Entries<String> reloaded = new IndexFile.Entries<>();
+        indexFile.read(in -> {
+            reloaded.read(in, DataInput::readUTF);
+            return null;
+        });
+        // the entries of the previous build are reused but are not current until used
+        assertNull(reloaded.getCurrent("source", attributes(source)));
+        assertEquals("first", reloaded.get("source", attributes(source), () -> "second"));
+
+        // a changed file is loaded again
+        Files.setLastModifiedTime(source, FileTime.fromMillis(2000L));
+        assertNull(reloaded.getCurrent("source", attributes(source)));
+        assertEquals("second", reloaded.get("source", attributes(source), () -> {
+            loads.incrementAndGet();
+            return "second";
+        }));
+        assertEquals(2, loads.get());
+    }
+
+    private static BasicFileAttributes attributes(Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackagingJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testOutdatedPaths() throws IOException {
+        File journalFile = tempDir.resolve("work/journal.idx").toFile();
+        File webappDirectory = tempDir.resolve("webapp").toFile();
+        PackagingJournal previous = new PackagingJournal(journalFile, webappDirectory);
+        assertFalse(previous.load());
+        previous.add("index.jsp");
+        previous.add("WEB-INF\\lib\\a-1.0.jar");
+        previous.add("WEB-INF/lib/b.jar");
+        previous.save();
+
+        PackagingJournal journal = new PackagingJournal(journalFile, webappDirectory);
+        assertTrue(journal.load());
+        journal.add("index.jsp");
+        journal.add("WEB-INF/lib/a-1.1.jar");
+
+        assertEquals(
+                Arrays.asList("WEB-INF/lib/a-1.0.jar", "WEB-INF/lib/b.jar"),
+                new ArrayList<>(journal.getOutdatedPaths().paths()));
+        journal.add("WEB-INF/lib/b.jar");
+        assertEquals(Arrays.asList("WEB-INF/lib/a-1.0.jar"), new ArrayList<>(journal.getOutdatedPaths().paths()));
+    }
+
+    @Test
+    void testJournalOfAnotherWebappDirectoryIsIgnored() throws IOException {
+        File journalFile = tempDir.resolve("journal.idx").toFile();
+        PackagingJournal previous = new PackagingJournal(journalFile, tempDir.resolve("exploded").toFile());
+        previous.add("WEB-INF/lib/a.jar");
+        previous.save();
+
+        PackagingJournal journal = new PackagingJournal(journalFile, tempDir.resolve("inplace").toFile());
+
+        assertFalse(journal.load());
+        assertTrue(journal.getOutdatedPaths().paths().isEmpty());
+    }
+
+    @Test
+    void testPreviousPathsWithoutJournal() throws IOException {
+        PackagingJournal journal =
+                new PackagingJournal(tempDir.resolve("journal.idx").toFile(), tempDir.resolve("webapp").toFile());
+        assertFalse(journal.load());
+        journal.addPreviousPath("WEB-INF\\lib\\foo-1.0.jar");
+        journal.addPreviousPath("index.jsp");
+        journal.add("index.jsp");
+        journal.add("WEB-INF/lib/foo-1.1.jar");
+
+        assertEquals(Arrays.asList("WEB-INF/lib/foo-1.0.jar"), new ArrayList<>(journal.getOutdatedPaths().paths()));
+    }
+}
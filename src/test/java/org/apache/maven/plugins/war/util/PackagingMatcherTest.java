@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.util.Arrays;
+
+import org.codehaus.plexus.util.SelectorUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackagingMatcherTest {
+
+    private static final String[] PATHS = {
+        "index.jsp",
+        "/index.jsp",
+        "WEB-INF/web.xml",
+        "WEB-INF\\lib\\commons-io.jar",
+        "WEB-INF/lib/commons-lang.jar",
+        "WEB-INF/lib/sub/x.jar",
+        "WEB-INF//classes/org/Foo.class",
+        "images/last-exile/logo.png",
+        "css/a.b.css",
+        "README",
+    };
+
+    private static final String[] PATTERNS = {
+        "**",
+        "**/**",
+        "*.jsp",
+        "/index.jsp",
+        "WEB-INF/lib/*.jar",
+        "WEB-INF/lib/",
+        "WEB-INF\\lib\\**",
+        "**/*.class",
+        "**/c?ss/*.*.css",
+        "**/a*b*.css",
+        "images/**/logo.png",
+        "%regex[.+/last-exile.+]",
+        "%ant[README]",
+        " WEB-INF/web.xml ",
+    };
+
+    @Test
+    void testMatchesSelectorUtils() {
+        for (String pattern : PATTERNS) {
+            PackagingMatcher matcher = new PackagingMatcher(new String[] {pattern}, new String[0]);
+            for (String path : PATHS) {
+                assertEquals(
+                        !SelectorUtils.matchPath(pattern.trim(), path),
+                        matcher.isExcluded(path),
+                        "pattern " + pattern + ", path " + path);
+            }
+        }
+    }
+
+    @Test
+    void testExcludesWinOverIncludes() {
+        PackagingMatcher matcher = new PackagingMatcher(
+                new String[] {"WEB-INF/**", "*.jsp"}, new String[] {"WEB-INF/lib/commons-*.jar", " **/*.class"});
+
+        assertFalse(matcher.isExcluded("WEB-INF/web.xml"));
+        assertFalse(matcher.isExcluded("index.jsp"));
+        assertTrue(matcher.isExcluded("WEB-INF/lib/commons-io.jar"));
+        assertTrue(matcher.isExcluded("WEB-INF/classes/org/Foo.class"));
+        assertTrue(matcher.isExcluded("images/logo.png"));
+        assertEquals(Arrays.asList("WEB-INF/lib/commons-*.jar", "**/*.class"), matcher.getExcludes());
+    }
+}
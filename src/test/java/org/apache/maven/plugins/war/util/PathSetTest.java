@@ -20,6 +20,8 @@ package org.apache.maven.plugins.war.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -29,6 +31,7 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class PathSetTest {
@@ -59,6 +62,16 @@ public class PathSetTest {
         assertEquals("abc/def/xyz", PathSet.normalizeSubPath("\\\\\\\\abc/def/xyz/"), "Normalized path error");
         // MWAR-371
         assertEquals("abc/def/ghi", PathSet.normalizeSubPath("///abc/////def////ghi//"), "Normalized path error");
+        assertEquals("abc/def/ghi", PathSet.normalizeSubPath("abc\\/\\def/\\ghi"), "Normalized path error");
+    }
+
+    /**
+     * An already normalized path is returned as is.
+     */
+    @Test
+    public void testNormalizeSubPathReturnsNormalizedPath() {
+        String path = "WEB-INF/lib/foo.jar";
+        assertSame(path, PathSet.normalizeSubPath(path), "Normalized path should be returned as is");
     }
 
     /* -------------- Operations tests ------------------*/
@@ -250,4 +263,35 @@ public class PathSetTest {
         assertTrue(ps.contains("123\\d1/d2\\f2"));
         assertFalse(ps.contains("123\\f3"));
     }
+
+    /**
+     * Test method for 'org.apache.maven.plugin.war.PathSet.addPrefix(String)' and
+     * 'org.apache.maven.plugin.war.PathSet.getPathsUnder(String)', which keep the insertion order.
+     */
+    @Test
+    public void testPrefixOperationsKeepOrder() {
+        PathSet ps = new PathSet(new String[] {"z.txt", "lib/b.jar", "a.txt", "lib/a.jar", "lib/sub/c.jar"});
+        assertTrue(ps.remove("a.txt"));
+        ps.add("a.txt");
+
+        ps.addPrefix("WEB-INF/");
+        assertEquals(
+                Arrays.asList(
+                        "WEB-INF/z.txt",
+                        "WEB-INF/lib/b.jar",
+                        "WEB-INF/lib/a.jar",
+                        "WEB-INF/lib/sub/c.jar",
+                        "WEB-INF/a.txt"),
+                new ArrayList<>(ps.paths()));
+        assertFalse(ps.contains("lib/a.jar"));
+
+        assertEquals(
+                Arrays.asList("WEB-INF/lib/b.jar", "WEB-INF/lib/a.jar", "WEB-INF/lib/sub/c.jar"),
+                new ArrayList<>(ps.getPathsUnder("WEB-INF/lib/").paths()));
+        assertEquals(0, ps.getPathsUnder("META-INF").size());
+
+        ps.addPrefix("x-");
+        assertTrue(ps.contains("x-WEB-INF/lib/a.jar"));
+        assertEquals(5, ps.size());
+    }
 }
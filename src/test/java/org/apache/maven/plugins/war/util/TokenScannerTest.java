@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final TokenScanner scanner = new TokenScanner(Arrays.asList("${*}", "@"), "\\");
+
+    @Test
+    void testScanSmallFiles() throws IOException {
+        assertFalse(scanner.mayContainToken(write("plain.txt", "no token $ { here"), "UTF-8"));
+        assertTrue(scanner.mayContainToken(write("expression.txt", "a ${token}"), "UTF-8"));
+        assertTrue(scanner.mayContainToken(write("at.txt", "an @token@"), "ISO-8859-1"));
+        assertTrue(scanner.mayContainToken(write("escape.txt", "c:\\temp"), null));
+
+        assertEquals(4, scanner.getScannedFiles());
+        assertEquals(1, scanner.getTokenFreeFiles());
+    }
+
+    @Test
+    void testScanLargeFiles() throws IOException {
+        StringBuilder content = new StringBuilder();
+        while (content.length() <= TokenScanner.BUFFER_SIZE * 2) {
+            content.append("some content without any token\n");
+        }
+        assertFalse(scanner.mayContainToken(write("large.txt", content.toString()), "UTF-8"));
+        assertTrue(scanner.mayContainToken(write("large-token.txt", "@" + content), "UTF-8"));
+        assertTrue(scanner.mayContainToken(write("large-token-end.txt", content + "${"), "UTF-8"));
+    }
+
+    @Test
+    void testScanTokenAcrossChunks() throws IOException {
+        StringBuilder content = new StringBuilder();
+        while (content.length() < TokenScanner.BUFFER_SIZE - 1) {
+            content.append('a');
+        }
+        assertTrue(scanner.mayContainToken(write("split-token.txt", content + "${token}"), "UTF-8"));
+        assertFalse(scanner.mayContainToken(write("split-plain.txt", content + "$ {token}"), "UTF-8"));
+    }
+
+    @Test
+    void testNonAsciiEncodingIsNotScanned() throws IOException {
+        File file = tempDir.resolve("utf16.txt").toFile();
+        Files.write(file.toPath(), "no token".getBytes(StandardCharsets.UTF_16));
+
+        assertTrue(scanner.mayContainToken(file, "UTF-16"));
+        assertEquals(0, scanner.getScannedFiles());
+    }
+
+    private File write(String name, String content) throws IOException {
+        return Files.write(tempDir.resolve(name), content.getBytes(StandardCharsets.UTF_8))
+                .toFile();
+    }
+}
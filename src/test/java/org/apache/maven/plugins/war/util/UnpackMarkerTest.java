@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnpackMarkerTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void testMissingMarker() throws IOException {
+        File archive = createArchive("content");
+
+        UnpackMarker marker = new UnpackMarker(new File(tempDir, "overlay.unpacked"));
+        assertFalse(marker.isUpToDate(archive, null, null, false));
+    }
+
+    @Test
+    void testWrittenMarker() throws IOException {
+        File archive = createArchive("content");
+        UnpackMarker marker = new UnpackMarker(new File(tempDir, "overlay.unpacked"));
+        marker.write(archive, new String[] {"**"}, null, false);
+
+        assertTrue(marker.isUpToDate(archive, new String[] {"**"}, null, false));
+        assertTrue(marker.isUpToDate(archive, new String[] {"**"}, new String[0], false));
+        assertFalse(marker.isUpToDate(archive, new String[] {"**/*.jsp"}, null, false));
+        assertFalse(marker.isUpToDate(archive, new String[] {"**"}, new String[] {"META-INF/**"}, false));
+
+        marker.delete();
+        assertFalse(marker.isUpToDate(archive, new String[] {"**"}, null, false));
+    }
+
+    @Test
+    void testTouchedArchive() throws IOException {
+        File archive = createArchive("content");
+        File markerFile = new File(tempDir, "overlay.unpacked");
+        UnpackMarker marker = new UnpackMarker(markerFile);
+        marker.write(archive, null, null, false);
+        byte[] written = Files.readAllBytes(markerFile.toPath());
+
+        assertTrue(archive.setLastModified(archive.lastModified() - 60000L));
+        assertTrue(marker.isUpToDate(archive, null, null, false));
+        assertFalse(
+                Arrays.equals(written, Files.readAllBytes(markerFile.toPath())),
+                "marker should record the new timestamp");
+        assertTrue(marker.isUpToDate(archive, null, null, false));
+    }
+
+    @Test
+    void testChangedArchive() throws IOException {
+        File archive = createArchive("content");
+        UnpackMarker marker = new UnpackMarker(new File(tempDir, "overlay.unpacked"));
+        marker.write(archive, null, null, false);
+        long lastModified = archive.lastModified();
+
+        Files.write(archive.toPath(), "CONTENT".getBytes(StandardCharsets.UTF_8));
+        assertTrue(archive.setLastModified(lastModified));
+        assertEquals(lastModified, archive.lastModified());
+        assertTrue(marker.isUpToDate(archive, null, null, false), "same size and timestamp are trusted");
+
+        assertTrue(archive.setLastModified(lastModified + 60000L));
+        assertFalse(marker.isUpToDate(archive, null, null, false));
+    }
+
+    @Test
+    void testEmptyExtraction() throws IOException {
+        File archive = createArchive("content");
+        UnpackMarker marker = new UnpackMarker(new File(tempDir, "overlay.unpacked"));
+        marker.write(archive, new String[] {"missing/**"}, null, true);
+
+        assertTrue(marker.isUpToDate(archive, new String[] {"missing/**"}, null, true));
+        assertFalse(marker.isUpToDate(archive, new String[] {"missing/**"}, null, false));
+
+        // an extraction that produced files is not up to date once its directory has been emptied
+        marker.write(archive, new String[] {"missing/**"}, null, false);
+        assertFalse(marker.isUpToDate(archive, new String[] {"missing/**"}, null, true));
+    }
+
+    private File createArchive(String content) throws IOException {
+        File archive = new File(tempDir, "overlay.war");
+        Files.write(archive.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return archive;
+    }
+}
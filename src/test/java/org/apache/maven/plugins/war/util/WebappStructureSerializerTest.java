@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.war.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.maven.model.Dependency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebappStructureSerializerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId("org.acme");
+        dependency.setArtifactId("acme-core");
+        dependency.setVersion("1.0");
+        dependency.setType("jar");
+        dependency.setScope("runtime");
+        WebappStructure structure = new WebappStructure(Collections.singletonList(dependency));
+        structure.getDependenciesInfo().get(0).setTargetFileName("acme-core-1.0.jar");
+        structure.getStructure("emptyOverlay");
+        structure.registerFile("currentBuild", "WEB-INF/lib/acme-core-1.0.jar");
+        structure.registerFile("overlay1", "index.jsp");
+        structure.registerFile("currentBuild", "WEB-INF/web.xml");
+
+        File file = tempDir.resolve("work/structure.bin").toFile();
+        WebappStructureSerializer serializer = new WebappStructureSerializer();
+        serializer.toFile(structure, file);
+        WebappStructure read = serializer.fromFile(file);
+
+        assertEquals(
+                Arrays.asList("WEB-INF/lib/acme-core-1.0.jar", "index.jsp", "WEB-INF/web.xml"),
+                new ArrayList<>(read.getFullStructure().paths()));
+        assertEquals(structure.getOwners(), read.getOwners());
+        assertEquals("overlay1", read.getOwner("index.jsp"));
+        assertEquals("currentBuild", read.getOwner("WEB-INF/web.xml"));
+        assertTrue(read.getDependenciesInfo().isEmpty(), "dependencies should not be persisted");
+    }
+
+    @Test
+    void testMissingFile() throws IOException {
+        assertNull(new WebappStructureSerializer().fromFile(tempDir.resolve("missing.bin").toFile()));
+    }
+
+    @Test
+    void testUnsupportedFormat() throws IOException {
+        File file = tempDir.resolve("structure.bin").toFile();
+        Files.write(file.toPath(), new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+
+        IOException e = assertThrows(IOException.class, () -> new WebappStructureSerializer().fromFile(file));
+        assertTrue(e.getMessage().startsWith("Unsupported webapp structure format"));
+    }
+}
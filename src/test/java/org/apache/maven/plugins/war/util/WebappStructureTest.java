@@ -18,12 +18,19 @@
  */
 package org.apache.maven.plugins.war.util;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -61,5 +68,150 @@ public class WebappStructureTest {
         assertEquals("currentBuild", structure.getOwner(path));
     }
 
+    @Test
+    public void testOwnerOfNormalizedPath() {
+        final WebappStructure structure = new WebappStructure(new ArrayList<>());
+        assertNull(structure.getOwner("WEB-INF/web.xml"));
+        structure.registerFile("overlay1", "/WEB-INF\\web.xml");
+        structure.registerFile("overlay2", "WEB-INF/lib/a.jar");
+        assertEquals("overlay1", structure.getOwner("WEB-INF/web.xml"));
+        assertEquals("overlay2", structure.getOwner("WEB-INF//lib/a.jar"));
+        structure.registerFileForced("overlay2", "WEB-INF/web.xml");
+        assertEquals("overlay2", structure.getOwner("WEB-INF/web.xml"));
+        assertFalse(structure.getStructure("overlay1").contains("WEB-INF/web.xml"));
+    }
+
+    @Test
+    public void testStructureOfOwner() {
+        final WebappStructure structure = new WebappStructure(new ArrayList<>());
+        structure.registerFile("overlay1", "WEB-INF/web.xml");
+        structure.registerFile("currentBuild", "index.jsp");
+        structure.registerFile("overlay1", "WEB-INF/lib/a.jar");
+        structure.registerFileForced("currentBuild", "WEB-INF/web.xml");
+        assertEquals(Arrays.asList("WEB-INF/lib/a.jar"), new ArrayList<>(structure.getStructure("overlay1").paths()));
+        assertEquals(
+                Arrays.asList("WEB-INF/web.xml", "index.jsp"),
+                new ArrayList<>(structure.getStructure("currentBuild").paths()));
+        assertTrue(structure.getStructure("overlay2").paths().isEmpty());
+        assertEquals(Arrays.asList("overlay1", "currentBuild", "overlay2"), new ArrayList<>(structure.getOwners()));
+        assertEquals(3, structure.getFullStructure().size());
+    }
+
+    @Test
+    public void testRegisterWithPreviousStructure() throws IOException {
+        final WebappStructure cache = new WebappStructure(new ArrayList<>());
+        cache.registerFile("overlay1", "WEB-INF/web.xml");
+        cache.registerFile("overlay1", "index.jsp");
+        cache.registerFile("overlay2", "WEB-INF/lib/a.jar");
+        cache.registerFile("overlay1", "WEB-INF/lib/removed.jar");
+        final WebappStructure structure = new WebappStructure(new ArrayList<>(), cache);
+        structure.getStructure("overlay1");
+        final List<String> events = new ArrayList<>();
+        final WebappStructure.RegistrationCallback callback = new WebappStructure.RegistrationCallback() {
+            public void registered(String ownerId, String targetFilename) {
+                events.add("registered " + targetFilename);
+            }
+
+            public void alreadyRegistered(String ownerId, String targetFilename) {
+                events.add("alreadyRegistered " + targetFilename);
+            }
+
+            public void refused(String ownerId, String targetFilename, String actualOwnerId) {
+                events.add("refused " + targetFilename);
+            }
+
+            public void superseded(String ownerId, String targetFilename, String deprecatedOwnerId) {
+                events.add("superseded " + targetFilename);
+            }
+
+            public void supersededUnknownOwner(String ownerId, String targetFilename, String unknownOwnerId) {
+                events.add("supersededUnknownOwner " + targetFilename);
+            }
+        };
+        structure.registerFile("overlay1", "WEB-INF/web.xml", callback);
+        structure.registerFile("currentBuild", "index.jsp", callback);
+        structure.registerFile("currentBuild", "WEB-INF/lib/a.jar", callback);
+        structure.registerFile("currentBuild", "new.jsp", callback);
+        structure.registerFile("overlay1", "new.jsp", callback);
+        structure.registerFile("currentBuild", "new.jsp", callback);
+
+        assertEquals(
+                Arrays.asList(
+                        "alreadyRegistered WEB-INF/web.xml",
+                        "superseded index.jsp",
+                        "supersededUnknownOwner WEB-INF/lib/a.jar",
+                        "registered new.jsp",
+                        "superseded new.jsp",
+                        "refused new.jsp"),
+                events);
+        assertEquals(Arrays.asList("WEB-INF/lib/removed.jar"), new ArrayList<>(structure.getObsoletePaths().paths()));
+    }
+
+    @Test
+    public void testConcurrentRegistrationKeepsPrecedence() throws Exception {
+        final List<String> owners = Arrays.asList("overlay1", "currentBuild", "overlay2", "overlay3");
+        final WebappStructure structure = new WebappStructure(new ArrayList<>());
+        for (String owner : owners) {
+            structure.getStructure(owner);
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(owners.size());
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            // the owners ranked last start first
+            for (int i = owners.size() - 1; i >= 0; i--) {
+                final String owner = owners.get(i);
+                final int rank = i;
+                futures.add(executor.submit(() -> {
+                    for (int path = (owners.size() - 1 - rank) * 100; path < 500; path++) {
+                        structure.registerFile(owner, "WEB-INF/file" + path + ".txt");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int path = 0; path < 500; path++) {
+            String expected = owners.get(Math.max(0, owners.size() - 1 - path / 100));
+            assertEquals(expected, structure.getOwner("WEB-INF/file" + path + ".txt"));
+        }
+    }
+
+    @Test
+    public void testRegisterFiles() {
+        final WebappStructure cache = new WebappStructure(new ArrayList<>());
+        cache.registerFile("overlay1", "index.jsp");
+        cache.registerFile("overlay2", "WEB-INF/web.xml");
+        cache.registerFile("removed", "WEB-INF/lib/a.jar");
+        final WebappStructure structure = new WebappStructure(new ArrayList<>(), cache);
+        structure.getStructure("overlay1");
+        structure.getStructure("overlay2");
+        structure.registerFile("overlay1", "refused.jsp");
+        structure.registerFile("overlay2", "superseded.jsp");
+
+        final WebappStructure.Registrations registrations = structure.registerFiles(
+                "overlay1",
+                new PathSet(new String[] {
+                    "new.jsp", "index.jsp", "refused.jsp", "superseded.jsp", "WEB-INF/web.xml", "WEB-INF/lib/a.jar"
+                }));
+
+        assertEquals(6, registrations.size());
+        assertEquals(WebappStructure.Registration.REGISTERED, registrations.getRegistration(0));
+        assertNull(registrations.getPreviousOwner(0));
+        assertEquals(WebappStructure.Registration.ALREADY_REGISTERED, registrations.getRegistration(1));
+        assertEquals(WebappStructure.Registration.REFUSED, registrations.getRegistration(2));
+        assertEquals("overlay1", registrations.getPreviousOwner(2));
+        assertEquals(WebappStructure.Registration.SUPERSEDED, registrations.getRegistration(3));
+        assertEquals("overlay2", registrations.getPreviousOwner(3));
+        assertEquals(WebappStructure.Registration.SUPERSEDED, registrations.getRegistration(4));
+        assertEquals("overlay2", registrations.getPreviousOwner(4));
+        assertEquals(WebappStructure.Registration.SUPERSEDED_UNKNOWN_OWNER, registrations.getRegistration(5));
+        assertEquals("removed", registrations.getPreviousOwner(5));
+        assertEquals("overlay1", structure.getOwner("superseded.jsp"));
+        assertEquals(6, structure.getFullStructure().size());
+    }
+
     // ... existing code ...
 }